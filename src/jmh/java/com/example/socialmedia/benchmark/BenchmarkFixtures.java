@@ -0,0 +1,49 @@
+package com.example.socialmedia.benchmark;
+
+import com.example.socialmedia.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds application components outside a Spring context, wired the way the
+ * application properties would wire them.
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "YourJWTSecretKey";
+
+    static final List<GrantedAuthority> USER_AUTHORITIES =
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtTokenProvider tokenProvider(long verifiedCacheMaxSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 86400000);
+        ReflectionTestUtils.setField(provider, "rolesInToken", false);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        ReflectionTestUtils.setField(provider, "meterRegistry", new SimpleMeterRegistry());
+        provider.init();
+        return provider;
+    }
+
+    static UserDetails userDetails(String username) {
+        return new User(username, "", USER_AUTHORITIES);
+    }
+
+    static Authentication authentication(String username) {
+        UserDetails userDetails = userDetails(username);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.example.socialmedia.benchmark;
+
+import com.example.socialmedia.SocialMediaApplication;
+import com.example.socialmedia.model.User;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts the full application against an in-memory H2 database in PostgreSQL mode, a
+ * stand-in for Postgres that needs no external services. When {@code benchmark.jdbc.url} is
+ * set, the application runs against that database instead, with the schema from the Flyway
+ * migrations; it should be an empty scratch database, since benchmarks write and delete rows.
+ */
+final class EmbeddedApplication {
+
+    private EmbeddedApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, String... overrides) {
+        List<String> properties = new ArrayList<>(Arrays.asList(
+                "server.port=0",
+                "app.search.index-path=" + Paths.get(System.getProperty("java.io.tmpdir"),
+                        "search-index-" + databaseName + "-" + System.nanoTime()),
+                "app.trending.snapshot-path=" + Paths.get(System.getProperty("java.io.tmpdir"),
+                        "trending-" + databaseName + "-" + System.nanoTime() + ".snapshot"),
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN"));
+        String url = System.getProperty("benchmark.jdbc.url");
+        if (url != null && !url.isEmpty()) {
+            properties.addAll(Arrays.asList(
+                    "spring.datasource.url=" + url,
+                    "spring.datasource.username=" + System.getProperty("benchmark.jdbc.username", "postgres"),
+                    "spring.datasource.password=" + System.getProperty("benchmark.jdbc.password", "")));
+        } else {
+            properties.addAll(Arrays.asList(
+                    "spring.datasource.url=jdbc:h2:mem:" + databaseName
+                            + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.jpa.hibernate.ddl-auto=create",
+                    "spring.flyway.enabled=false",
+                    "app.schema.verify-indexes=false",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+        }
+        properties.addAll(Arrays.asList(overrides));
+        return new SpringApplicationBuilder(SocialMediaApplication.class)
+                .properties(properties.toArray(new String[0]))
+                .run();
+    }
+
+    static PlatformTransactionManager transactionManager(ConfigurableApplicationContext context) {
+        return context.getBean(PlatformTransactionManager.class);
+    }
+
+    static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchm");
+        return user;
+    }
+}
\ No newline at end of file
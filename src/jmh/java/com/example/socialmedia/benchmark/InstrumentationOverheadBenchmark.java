@@ -0,0 +1,91 @@
+package com.example.socialmedia.benchmark;
+
+import com.example.socialmedia.config.QueryCounter;
+import com.example.socialmedia.dto.PostResponse;
+import com.example.socialmedia.model.Post;
+import com.example.socialmedia.model.User;
+import com.example.socialmedia.repository.PostRepository;
+import com.example.socialmedia.repository.UserRepository;
+import com.example.socialmedia.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the metrics layer on a service call that runs one query: the service timer, the
+ * repository timer and the datasource proxy feeding a per-request query count. The
+ * {@code false} run has all three off, so the difference is the instrumentation alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentationOverheadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean instrumentation;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private QueryCounter queryCounter;
+    private Long authorId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedApplication.start("instrumentation",
+                "app.metrics.instrumentation.enabled=" + instrumentation,
+                "management.metrics.data.repository.autotime.enabled=" + instrumentation);
+        postService = context.getBean(PostService.class);
+        queryCounter = instrumentation ? context.getBean(QueryCounter.class) : null;
+        authorId = new TransactionTemplate(EmbeddedApplication.transactionManager(context))
+                .execute(status -> seed(context.getBean(UserRepository.class), context.getBean(PostRepository.class)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PostResponse> postsByUser() {
+        if (queryCounter == null) {
+            return postService.getPostsByUser(authorId);
+        }
+        // Opened the way the request filter opens it
+        try (QueryCounter.Scope scope = queryCounter.open()) {
+            return postService.getPostsByUser(authorId);
+        }
+    }
+
+    private Long seed(UserRepository userRepository, PostRepository postRepository) {
+        User author = userRepository.save(EmbeddedApplication.newUser("author"));
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Post post = new Post();
+            post.setTitle("Post " + i);
+            post.setContent("Seeded benchmark content");
+            post.setUser(author);
+            posts.add(post);
+        }
+        postRepository.saveAll(posts);
+        return author.getId();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.example.socialmedia.benchmark;
+
+import com.example.socialmedia.dto.CursorPage;
+import com.example.socialmedia.dto.PostResponse;
+import com.example.socialmedia.dto.UserResponse;
+import com.example.socialmedia.model.Post;
+import com.example.socialmedia.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of response bodies, using the same ObjectMapper configuration
+ * Spring Boot applies to controllers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PostResponse post;
+    private UserResponse user;
+    private CursorPage<PostResponse> feedPage;
+    private Post postEntity;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.now();
+        String content = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(8);
+
+        post = new PostResponse(1L, "Benchmark post", content, 7L, "author", "https://example.com/a.png",
+                1234L, 56L, 7L, now, now);
+        user = new UserResponse(7L, "author", "author@example.com", "bio", "https://example.com/a.png",
+                150L, 4200L, now);
+
+        List<PostResponse> posts = new ArrayList<>(pageSize);
+        for (long i = 0; i < pageSize; i++) {
+            posts.add(new PostResponse(i, "Post " + i, content, 7L, "author", null, i, i, i, now, now));
+        }
+        feedPage = new CursorPage<>(posts, "MjAyMy0wMS0wMVQwMDowMHwxMjM");
+
+        User author = new User();
+        author.setId(7L);
+        author.setUsername("author");
+        author.setEmail("author@example.com");
+        author.setPassword("$2a$10$hash");
+        author.setCreatedAt(now);
+        postEntity = new Post();
+        postEntity.setId(1L);
+        postEntity.setTitle("Benchmark post");
+        postEntity.setContent(content);
+        postEntity.setUser(author);
+        postEntity.setCreatedAt(now);
+        postEntity.setUpdatedAt(now);
+    }
+
+    @Benchmark
+    public byte[] postResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(post);
+    }
+
+    @Benchmark
+    public byte[] userResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] feedPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(feedPage);
+    }
+
+    @Benchmark
+    public byte[] postEntityWithoutCollections() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(postEntity);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.example.socialmedia.benchmark;
+
+import com.example.socialmedia.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT generation and verification. {@code legacyValidateThenParse} reproduces the former
+ * filter path (two parses and two HMACs with the key re-derived each time) as the baseline
+ * for {@code parseAndValidate}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider cachingProvider;
+    private JwtTokenProvider uncachedProvider;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingProvider = BenchmarkFixtures.tokenProvider(10_000);
+        uncachedProvider = BenchmarkFixtures.tokenProvider(0);
+        authentication = BenchmarkFixtures.authentication("benchmark-user");
+        token = cachingProvider.generateToken(authentication);
+        cachingProvider.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public Claims parseAndValidateCached() {
+        return cachingProvider.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public Claims parseAndValidateUncached() {
+        return uncachedProvider.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public String legacyValidateThenParse() {
+        Jwts.parser().setSigningKey(BenchmarkFixtures.JWT_SECRET).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(BenchmarkFixtures.JWT_SECRET).parseClaimsJws(token).getBody().getSubject();
+    }
+}
\ No newline at end of file
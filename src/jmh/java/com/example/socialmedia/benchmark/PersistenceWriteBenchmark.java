@@ -0,0 +1,118 @@
+package com.example.socialmedia.benchmark;
+
+import com.example.socialmedia.model.Comment;
+import com.example.socialmedia.model.Post;
+import com.example.socialmedia.model.User;
+import com.example.socialmedia.repository.CommentRepository;
+import com.example.socialmedia.repository.PostRepository;
+import com.example.socialmedia.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts {@code rows} posts or comments in one transaction, with JDBC batching off
+ * ({@code batchSize} 1) and on. Ids come from the pooled sequences in both cases, so the
+ * difference is the statement batching alone. Throughput is reported per transaction.
+ * <p>
+ * On H2 this only measures Hibernate's side of batching. Run it against PostgreSQL with
+ * {@code -Dbenchmark.jdbc.url}, once with {@code reWriteBatchedInserts=true} in the URL and
+ * once without, to see what the driver's multi-row inserts add.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceWriteBenchmark {
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"100"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private PostRepository postRepository;
+    private CommentRepository commentRepository;
+    private User author;
+    private Post post;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedApplication.start("writes",
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        transactionTemplate = new TransactionTemplate(EmbeddedApplication.transactionManager(context));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        postRepository = context.getBean(PostRepository.class);
+        commentRepository = context.getBean(CommentRepository.class);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Unique per trial, since an external database keeps the users of earlier runs
+            author = context.getBean(UserRepository.class).save(
+                    EmbeddedApplication.newUser("writer-" + Long.toString(System.nanoTime(), 36)));
+            post = postRepository.save(newPost(0));
+        });
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        // Keeps the tables at the seeded size so later iterations do not measure a bigger heap
+        jdbcTemplate.update("DELETE FROM comments WHERE post_id = ?", post.getId());
+        jdbcTemplate.update("DELETE FROM posts WHERE user_id = ? AND id <> ?", author.getId(), post.getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Post> insertPosts() {
+        List<Post> posts = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            posts.add(newPost(i));
+        }
+        return transactionTemplate.execute(status -> postRepository.saveAll(posts));
+    }
+
+    @Benchmark
+    public List<Comment> insertComments() {
+        List<Comment> comments = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Comment comment = new Comment();
+            comment.setContent("Benchmark comment " + i);
+            comment.setPost(post);
+            comment.setUser(author);
+            comments.add(comment);
+        }
+        return transactionTemplate.execute(status -> commentRepository.saveAll(comments));
+    }
+
+    private Post newPost(int i) {
+        Post result = new Post();
+        result.setTitle("Benchmark post " + i);
+        result.setContent("Benchmark content");
+        result.setUser(author);
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.example.socialmedia.benchmark;
+
+import com.example.socialmedia.dto.CursorPage;
+import com.example.socialmedia.dto.PostResponse;
+import com.example.socialmedia.model.Post;
+import com.example.socialmedia.model.User;
+import com.example.socialmedia.repository.PostRepository;
+import com.example.socialmedia.repository.UserRepository;
+import com.example.socialmedia.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer feed reads against an embedded H2 database in PostgreSQL mode, seeded with a
+ * reader who follows {@code followees} users that wrote {@code postsPerUser} posts each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostServiceFeedBenchmark {
+
+    @Param({"100", "1000"})
+    private int followees;
+
+    @Param({"20"})
+    private int postsPerUser;
+
+    @Param({"false", "true"})
+    private boolean fanoutOnWrite;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private Long readerId;
+    private String secondPageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedApplication.start("feed",
+                "app.feed.fanout-on-write.enabled=" + fanoutOnWrite);
+        postService = context.getBean(PostService.class);
+        readerId = new TransactionTemplate(EmbeddedApplication.transactionManager(context))
+                .execute(status -> seed(context.getBean(UserRepository.class), context.getBean(PostRepository.class)));
+        secondPageCursor = postService.getFeedPosts(readerId, null, 20).getNextCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<PostResponse> firstPage() {
+        return postService.getFeedPosts(readerId, null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<PostResponse> secondPage() {
+        return postService.getFeedPosts(readerId, secondPageCursor, 20);
+    }
+
+    private Long seed(UserRepository userRepository, PostRepository postRepository) {
+        User reader = userRepository.save(EmbeddedApplication.newUser("reader"));
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < followees; i++) {
+            User author = userRepository.save(EmbeddedApplication.newUser("author" + i));
+            reader.getSubscriptions().add(author);
+            for (int j = 0; j < postsPerUser; j++) {
+                Post post = new Post();
+                post.setTitle("Post " + j + " by " + author.getUsername());
+                post.setContent("Seeded benchmark content");
+                post.setUser(author);
+                posts.add(post);
+            }
+        }
+        userRepository.save(reader);
+        postRepository.saveAll(posts);
+        return reader.getId();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,304 @@
+package com.example.socialmedia.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Bulk-loads a reproducible data set straight into the application schema with batched
+ * JDBC inserts: users, a power-law follower graph, posts, comments and likes.
+ * <p>
+ * Popularity follows a Zipf distribution over the users, so a handful of accounts end up
+ * with a large share of all followers, as on a real network. Every seeded user shares the
+ * password {@code loadtest.password}, which lets {@link LoadDriver} sign in as any of them.
+ * The same {@code loadtest.seed} always produces the same graph.
+ * <p>
+ * The schema must already exist (start the application once against the database).
+ */
+public class DataGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final Random random = new Random(LoadTestProperties.seed());
+    private final String prefix = LoadTestProperties.string("prefix", "lt_");
+    private final int users = LoadTestProperties.integer("users", 10_000);
+    private final int followsPerUser = LoadTestProperties.integer("follows-per-user", 50);
+    private final int maxFollowsPerUser = LoadTestProperties.integer("max-follows-per-user", 2_000);
+    private final double zipfExponent = LoadTestProperties.decimal("zipf-exponent", 1.0);
+    private final int postsPerUser = LoadTestProperties.integer("posts-per-user", 20);
+    private final int commentsPerPost = LoadTestProperties.integer("comments-per-post", 3);
+    private final int likesPerPost = LoadTestProperties.integer("likes-per-post", 10);
+    private final int likesPerComment = LoadTestProperties.integer("likes-per-comment", 1);
+    private final int historyDays = LoadTestProperties.integer("history-days", 30);
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    public static void main(String[] args) throws SQLException {
+        String url = LoadTestProperties.string("jdbc-url",
+                "jdbc:postgresql://localhost:5432/postgres?reWriteBatchedInserts=true");
+        String username = LoadTestProperties.string("jdbc-username", "postgres");
+        String password = LoadTestProperties.string("jdbc-password", "1234");
+
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            connection.setAutoCommit(false);
+            new DataGenerator().generate(connection);
+        }
+    }
+
+    void generate(Connection connection) throws SQLException {
+        long started = System.nanoTime();
+        if (count(connection, "SELECT COUNT(*) FROM users WHERE username LIKE '" + prefix + "%'") > 0) {
+            throw new IllegalStateException("Users with prefix '" + prefix
+                    + "' already exist; use a fresh database or another loadtest.prefix");
+        }
+
+        long[] userIds = insertUsers(connection);
+        long follows = insertFollowGraph(connection, userIds);
+        long[] postIds = insertPosts(connection, userIds);
+        long[] commentIds = insertComments(connection, userIds, postIds);
+        long postLikes = insertLikes(connection, "post_likes", "post_id", userIds, postIds, likesPerPost);
+        long commentLikes = insertLikes(connection, "comment_likes", "comment_id", userIds, commentIds, likesPerComment);
+        backfillCounters(connection);
+
+        System.out.printf("Seeded %d users, %d follows, %d posts, %d comments, %d post likes, %d comment likes in %ds%n",
+                userIds.length, follows, postIds.length, commentIds.length, postLikes, commentLikes,
+                Duration.ofNanos(System.nanoTime() - started).getSeconds());
+    }
+
+    private long[] insertUsers(Connection connection) throws SQLException {
+        String passwordHash = new BCryptPasswordEncoder().encode(LoadTestProperties.string("password", "loadtest"));
+        String sql = "INSERT INTO users (username, email, password, bio, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int i = 0; i < users; i++) {
+                Timestamp createdAt = randomTimestamp();
+                insert.setString(1, prefix + i);
+                insert.setString(2, prefix + i + "@loadtest.local");
+                insert.setString(3, passwordHash);
+                insert.setString(4, "Load test user " + i);
+                insert.setTimestamp(5, createdAt);
+                insert.setTimestamp(6, createdAt);
+                addToBatch(connection, insert, i + 1);
+            }
+            flush(connection, insert);
+        }
+
+        // Keep the ids in seeding order: index 0 is the most popular account
+        long[] ids = new long[users];
+        String select = "SELECT id, username FROM users WHERE username LIKE ?";
+        try (PreparedStatement query = connection.prepareStatement(select)) {
+            query.setString(1, prefix + "%");
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    ids[Integer.parseInt(rs.getString(2).substring(prefix.length()))] = rs.getLong(1);
+                }
+            }
+        }
+
+        String assignRole = "INSERT INTO user_roles (user_id, role_id) " +
+                "SELECT u.id, r.id FROM users u, roles r WHERE u.username LIKE ? AND r.name = 'ROLE_USER'";
+        try (PreparedStatement roles = connection.prepareStatement(assignRole)) {
+            roles.setString(1, prefix + "%");
+            if (roles.executeUpdate() == 0) {
+                throw new IllegalStateException("ROLE_USER is missing from the roles table");
+            }
+        }
+        connection.commit();
+        return ids;
+    }
+
+    private long insertFollowGraph(Connection connection, long[] userIds) throws SQLException {
+        double[] cumulative = zipfCumulative(userIds.length);
+        String sql = "INSERT INTO user_subscriptions (subscriber_id, target_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+        long rows = 0;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int subscriber = 0; subscriber < userIds.length; subscriber++) {
+                int follows = Math.min(paretoCount(followsPerUser), Math.min(maxFollowsPerUser, userIds.length - 1));
+                Set<Integer> targets = new HashSet<>();
+                // Bounded so that tiny graphs cannot spin on the last few unpopular targets
+                for (int attempts = 0; targets.size() < follows && attempts < follows * 20; attempts++) {
+                    int target = sample(cumulative);
+                    if (target != subscriber && targets.add(target)) {
+                        insert.setLong(1, userIds[subscriber]);
+                        insert.setLong(2, userIds[target]);
+                        addToBatch(connection, insert, ++rows);
+                    }
+                }
+            }
+            flush(connection, insert);
+        }
+        return rows;
+    }
+
+    private long[] insertPosts(Connection connection, long[] userIds) throws SQLException {
+        String sql = "INSERT INTO posts (title, content, user_id, like_count, view_count, created_at, updated_at) " +
+                "VALUES (?, ?, ?, 0, 0, ?, ?)";
+        long rows = 0;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long userId : userIds) {
+                int posts = paretoCount(postsPerUser);
+                for (int i = 0; i < posts; i++) {
+                    Timestamp createdAt = randomTimestamp();
+                    insert.setString(1, "Post " + i + " by user " + userId);
+                    insert.setString(2, text(40 + random.nextInt(400)));
+                    insert.setLong(3, userId);
+                    insert.setTimestamp(4, createdAt);
+                    insert.setTimestamp(5, createdAt);
+                    addToBatch(connection, insert, ++rows);
+                }
+            }
+            flush(connection, insert);
+        }
+        return selectIds(connection, "SELECT p.id FROM posts p JOIN users u ON u.id = p.user_id " +
+                "WHERE u.username LIKE '" + prefix + "%' ORDER BY p.id");
+    }
+
+    private long[] insertComments(Connection connection, long[] userIds, long[] postIds) throws SQLException {
+        double[] userWeights = zipfCumulative(userIds.length);
+        String sql = "INSERT INTO comments (content, post_id, user_id, like_count, created_at, updated_at) " +
+                "VALUES (?, ?, ?, 0, ?, ?)";
+        long total = (long) postIds.length * commentsPerPost;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long i = 0; i < total; i++) {
+                Timestamp createdAt = randomTimestamp();
+                insert.setString(1, text(10 + random.nextInt(140)));
+                insert.setLong(2, postIds[random.nextInt(postIds.length)]);
+                insert.setLong(3, userIds[sample(userWeights)]);
+                insert.setTimestamp(4, createdAt);
+                insert.setTimestamp(5, createdAt);
+                addToBatch(connection, insert, i + 1);
+            }
+            flush(connection, insert);
+        }
+        return selectIds(connection, "SELECT c.id FROM comments c JOIN users u ON u.id = c.user_id " +
+                "WHERE u.username LIKE '" + prefix + "%' ORDER BY c.id");
+    }
+
+    private long insertLikes(Connection connection, String table, String column,
+                             long[] userIds, long[] targetIds, int likesPerTarget) throws SQLException {
+        if (targetIds.length == 0 || likesPerTarget == 0) {
+            return 0;
+        }
+        String sql = "INSERT INTO " + table + " (" + column + ", user_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+        long total = (long) targetIds.length * likesPerTarget;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long i = 0; i < total; i++) {
+                insert.setLong(1, targetIds[random.nextInt(targetIds.length)]);
+                insert.setLong(2, userIds[random.nextInt(userIds.length)]);
+                addToBatch(connection, insert, i + 1);
+            }
+            flush(connection, insert);
+        }
+        // Duplicates were skipped by ON CONFLICT, so count what actually landed
+        return count(connection, "SELECT COUNT(*) FROM " + table);
+    }
+
+    private void backfillCounters(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE users u SET follower_count = s.followers " +
+                    "FROM (SELECT target_id, COUNT(*) AS followers FROM user_subscriptions GROUP BY target_id) s " +
+                    "WHERE u.id = s.target_id");
+            statement.executeUpdate("UPDATE users u SET following_count = s.following " +
+                    "FROM (SELECT subscriber_id, COUNT(*) AS following FROM user_subscriptions GROUP BY subscriber_id) s " +
+                    "WHERE u.id = s.subscriber_id");
+            statement.executeUpdate("UPDATE posts p SET like_count = l.likes " +
+                    "FROM (SELECT post_id, COUNT(*) AS likes FROM post_likes GROUP BY post_id) l " +
+                    "WHERE p.id = l.post_id");
+            statement.executeUpdate("UPDATE comments c SET like_count = l.likes " +
+                    "FROM (SELECT comment_id, COUNT(*) AS likes FROM comment_likes GROUP BY comment_id) l " +
+                    "WHERE c.id = l.comment_id");
+        }
+        connection.commit();
+    }
+
+    private void addToBatch(Connection connection, PreparedStatement statement, long rows) throws SQLException {
+        statement.addBatch();
+        if (rows % BATCH_SIZE == 0) {
+            flush(connection, statement);
+        }
+    }
+
+    private void flush(Connection connection, PreparedStatement statement) throws SQLException {
+        statement.executeBatch();
+        connection.commit();
+    }
+
+    private long count(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private long[] selectIds(Connection connection, String sql) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Cumulative Zipf weights for ranks 1..n, normalised to end at 1.0.
+     */
+    private double[] zipfCumulative(int n) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, zipfExponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    private int sample(double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Heavy-tailed count with the given mean: a Pareto draw with shape 2, so most users
+     * sit below the mean and a few are far above it. Capped at 50x the mean.
+     */
+    private int paretoCount(int mean) {
+        double scale = mean / 2.0;
+        return (int) Math.min(Math.round(scale / Math.sqrt(1.0 - random.nextDouble())), 50L * mean);
+    }
+
+    private Timestamp randomTimestamp() {
+        long seconds = (long) (random.nextDouble() * historyDays * 86_400L);
+        return Timestamp.valueOf(now.minusSeconds(seconds));
+    }
+
+    private String text(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return sb.substring(0, length).trim();
+    }
+
+    private static final String[] WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do",
+            "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua", "enim"
+    };
+}
\ No newline at end of file
@@ -0,0 +1,276 @@
+package com.example.socialmedia.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replays a weighted mix of feed reads, post reads, likes and comments against a running
+ * instance, one virtual thread per simulated client, and reports throughput and
+ * p50/p99/p999 latency per endpoint.
+ * <p>
+ * Clients sign in as users seeded by {@link DataGenerator}. Requests issued during the
+ * warm-up period are sent but not recorded.
+ */
+public class LoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl = LoadTestProperties.string("base-url", "http://localhost:8080");
+    private final String prefix = LoadTestProperties.string("prefix", "lt_");
+    private final String password = LoadTestProperties.string("password", "loadtest");
+    private final int seededUsers = LoadTestProperties.integer("users", 10_000);
+    private final int sessions = LoadTestProperties.integer("sessions", 100);
+    private final int clients = LoadTestProperties.integer("clients", 200);
+    private final int warmupSeconds = LoadTestProperties.integer("warmup-seconds", 10);
+    private final int durationSeconds = LoadTestProperties.integer("duration-seconds", 60);
+    private final int postSample = LoadTestProperties.integer("post-sample", 5_000);
+    private final Map<Endpoint, Integer> mix = parseMix(LoadTestProperties.string("mix", "feed=60,post=25,like=10,comment=5"));
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<Endpoint, LatencyHistogram> histograms = new LinkedHashMap<>();
+
+    private List<Session> signedIn;
+    private long[] postIds;
+
+    enum Endpoint {
+        FEED("GET  /api/posts/feed/{userId}"),
+        POST("GET  /api/posts/{id}"),
+        LIKE("POST /api/posts/{postId}/like/{userId}"),
+        COMMENT("POST /api/comments/post/{postId}/user/{userId}");
+
+        private final String label;
+
+        Endpoint(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Session {
+        private final long userId;
+        private final String authorization;
+        private volatile String feedCursor;
+
+        private Session(long userId, String token) {
+            this.userId = userId;
+            this.authorization = "Bearer " + token;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadDriver().run();
+    }
+
+    void run() throws Exception {
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new LatencyHistogram());
+        }
+        signedIn = signIn();
+        postIds = samplePostIds(signedIn.get(0));
+        System.out.printf("Signed in %d sessions, sampled %d posts; running %d clients for %ds (+%ds warm-up)%n",
+                signedIn.size(), postIds.length, clients, durationSeconds, warmupSeconds);
+
+        long start = System.nanoTime();
+        long recordFrom = start + Duration.ofSeconds(warmupSeconds).toNanos();
+        long stopAt = recordFrom + Duration.ofSeconds(durationSeconds).toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                workers.submit(() -> clientLoop(recordFrom, stopAt));
+            }
+        }
+        report(durationSeconds);
+    }
+
+    private void clientLoop(long recordFrom, long stopAt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < stopAt) {
+            Session session = signedIn.get(random.nextInt(signedIn.size()));
+            Endpoint endpoint = pick(random.nextInt(100));
+            boolean recorded = now >= recordFrom;
+            try {
+                boolean ok = call(endpoint, session, random);
+                long micros = (System.nanoTime() - now) / 1_000;
+                if (recorded) {
+                    if (ok) {
+                        histograms.get(endpoint).record(micros);
+                    } else {
+                        histograms.get(endpoint).recordError();
+                    }
+                }
+            } catch (IOException e) {
+                if (recorded) {
+                    histograms.get(endpoint).recordError();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean call(Endpoint endpoint, Session session, ThreadLocalRandom random)
+            throws IOException, InterruptedException {
+        long postId = postIds[random.nextInt(postIds.length)];
+        switch (endpoint) {
+            case FEED:
+                return readFeed(session, random);
+            case POST:
+                return send(get("/api/posts/" + postId, session)).statusCode() == 200;
+            case LIKE:
+                return send(post("/api/posts/" + postId + "/like/" + session.userId, session, "")).statusCode() == 200;
+            case COMMENT:
+                String body = MAPPER.createObjectNode().put("content", "Load test comment").toString();
+                return send(post("/api/comments/post/" + postId + "/user/" + session.userId, session, body))
+                        .statusCode() == 200;
+            default:
+                throw new IllegalStateException("Unknown endpoint " + endpoint);
+        }
+    }
+
+    /**
+     * Most feed reads open the first page; the rest scroll on from the session's last cursor.
+     */
+    private boolean readFeed(Session session, ThreadLocalRandom random) throws IOException, InterruptedException {
+        String cursor = session.feedCursor;
+        String path = "/api/posts/feed/" + session.userId + "?size=20";
+        if (cursor != null && random.nextInt(100) < 30) {
+            path += "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+        }
+        HttpResponse<String> response = send(get(path, session));
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        JsonNode next = MAPPER.readTree(response.body()).path("nextCursor");
+        session.feedCursor = next.isTextual() ? next.asText() : null;
+        return true;
+    }
+
+    private List<Session> signIn() throws Exception {
+        List<Future<Session>> pending = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions; i++) {
+                String username = prefix + ThreadLocalRandom.current().nextInt(seededUsers);
+                pending.add(executor.submit(() -> signIn(username)));
+            }
+        }
+        List<Session> result = new ArrayList<>();
+        for (Future<Session> session : pending) {
+            result.add(session.get());
+        }
+        return result;
+    }
+
+    private Session signIn(String username) throws IOException, InterruptedException {
+        String body = MAPPER.createObjectNode().put("username", username).put("password", password).toString();
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Sign-in failed for " + username + ": HTTP " + response.statusCode());
+        }
+        JsonNode json = MAPPER.readTree(response.body());
+        return new Session(json.get("id").asLong(), json.get("token").asText());
+    }
+
+    private long[] samplePostIds(Session session) throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; ids.size() < postSample; page++) {
+            HttpResponse<String> response = send(get("/api/posts?size=100&page=" + page, session));
+            JsonNode content = MAPPER.readTree(response.body()).path("content");
+            content.forEach(post -> ids.add(post.get("id").asLong()));
+            if (content.size() < 100) {
+                break;
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No posts found; run DataGenerator first");
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private HttpRequest get(String path, Session session) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", session.authorization)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, Session session, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", session.authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Endpoint pick(int roll) {
+        int total = 0;
+        for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+            total += entry.getValue();
+            if (roll < total) {
+                return entry.getKey();
+            }
+        }
+        return Endpoint.FEED;
+    }
+
+    private void report(int seconds) {
+        System.out.printf("%n%-50s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<Endpoint, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            System.out.printf("%-50s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey().label,
+                    histogram.count(),
+                    histogram.errors(),
+                    (double) histogram.count() / seconds,
+                    histogram.percentile(50) / 1000.0,
+                    histogram.percentile(99) / 1000.0,
+                    histogram.percentile(99.9) / 1000.0,
+                    histogram.max() / 1000.0);
+        }
+    }
+
+    /**
+     * Parses weights such as {@code feed=60,post=25,like=10,comment=5}; they must add up to 100.
+     */
+    private static Map<Endpoint, Integer> parseMix(String spec) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        int total = 0;
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            weights.put(Endpoint.valueOf(pair[0].trim().toUpperCase()), weight);
+            total += weight;
+        }
+        if (total != 100) {
+            throw new IllegalArgumentException("loadtest.mix weights must add up to 100, got " + total);
+        }
+        return weights;
+    }
+}
\ No newline at end of file
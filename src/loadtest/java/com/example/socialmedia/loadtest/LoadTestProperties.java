@@ -0,0 +1,27 @@
+package com.example.socialmedia.loadtest;
+
+/**
+ * Reads {@code -Dloadtest.*} system properties, so both tools can be configured from the
+ * Maven command line.
+ */
+final class LoadTestProperties {
+
+    private LoadTestProperties() {
+    }
+
+    static String string(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    static int integer(String name, int defaultValue) {
+        return Integer.parseInt(string(name, String.valueOf(defaultValue)));
+    }
+
+    static double decimal(String name, double defaultValue) {
+        return Double.parseDouble(string(name, String.valueOf(defaultValue)));
+    }
+
+    static long seed() {
+        return Long.parseLong(string("seed", "42"));
+    }
+}
\ No newline at end of file
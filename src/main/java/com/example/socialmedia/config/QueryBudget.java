@@ -0,0 +1,20 @@
+package com.example.socialmedia.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most JDBC statements a request to the annotated handler may execute, including principal
+ * lookups made by the security chain. Overrides {@code app.sql.budget.max-queries} and is
+ * checked by {@link QueryCountFilter}; on a class it applies to every handler without its own.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+
+    int value();
+}
\ No newline at end of file
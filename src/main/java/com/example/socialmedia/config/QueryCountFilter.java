@@ -0,0 +1,172 @@
+package com.example.socialmedia.config;
+
+import com.example.socialmedia.exception.QueryBudgetExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts the JDBC statements and JDBC time of each request and holds them to a budget: the
+ * handler's {@link QueryBudget}, or {@code app.sql.budget.max-queries}. Counts are recorded in
+ * {@code http.server.requests.queries}. Requests over budget are logged and counted in
+ * {@code sql.budget.exceeded}; with {@code mode=fail} they also throw
+ * {@link QueryBudgetExceededException}, so a MockMvc test fails when an endpoint starts issuing
+ * more statements.
+ * <p>
+ * With {@code app.sql.budget.headers} on, the counts are sent as {@code X-Query-Count} and
+ * {@code X-Query-Time-Ms}. They are added when the body is first opened, since headers cannot
+ * change after that; handlers build their responses from DTO queries before writing, so the
+ * counts are complete except for streaming endpoints.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    public enum Mode {
+        LOG,
+        FAIL
+    }
+
+    private final QueryCounter queryCounter;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxQueries;
+
+    private final Mode mode;
+
+    private final boolean headers;
+
+    public QueryCountFilter(QueryCounter queryCounter, MeterRegistry meterRegistry, int maxQueries, Mode mode, boolean headers) {
+        this.queryCounter = queryCounter;
+        this.meterRegistry = meterRegistry;
+        this.maxQueries = maxQueries;
+        this.mode = mode;
+        this.headers = headers;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (QueryCounter.Scope scope = queryCounter.open()) {
+            CountHeaderResponse countHeaderResponse = headers ? new CountHeaderResponse(response, scope) : null;
+            filterChain.doFilter(request, countHeaderResponse != null ? countHeaderResponse : response);
+            if (countHeaderResponse != null) {
+                countHeaderResponse.addCountHeaders();
+            }
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("http.server.requests.queries")
+                    .description("JDBC statements executed while handling a request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(scope.getQueries());
+
+            int budget = budget(request);
+            if (scope.getQueries() > budget) {
+                overBudget(request.getMethod(), uri, scope, budget);
+            }
+        }
+    }
+
+    private int budget(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            if (budget == null) {
+                budget = handlerMethod.getBeanType().getAnnotation(QueryBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return maxQueries;
+    }
+
+    private void overBudget(String method, String uri, QueryCounter.Scope scope, int budget) {
+        meterRegistry.counter("sql.budget.exceeded", "method", method, "uri", uri).increment();
+        String message = method + " " + uri + " ran " + scope.getQueries() + " SQL statements ("
+                + scope.getElapsedMillis() + " ms), over its budget of " + budget;
+        if (mode == Mode.FAIL) {
+            throw new QueryBudgetExceededException(message);
+        }
+        logger.warn(message);
+    }
+
+    /**
+     * Adds the count headers at the last moment they can still be sent: when the body is
+     * opened, the buffer flushed or an error sent, or after the handler if none of that
+     * happened.
+     */
+    private static final class CountHeaderResponse extends HttpServletResponseWrapper {
+
+        private final QueryCounter.Scope scope;
+        private boolean added;
+
+        private CountHeaderResponse(HttpServletResponse response, QueryCounter.Scope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        void addCountHeaders() {
+            if (added || isCommitted()) {
+                return;
+            }
+            added = true;
+            setHeader(QUERY_COUNT_HEADER, String.valueOf(scope.getQueries()));
+            setHeader(QUERY_TIME_HEADER, String.valueOf(scope.getElapsedMillis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addCountHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addCountHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addCountHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addCountHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addCountHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addCountHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
\ No newline at end of file
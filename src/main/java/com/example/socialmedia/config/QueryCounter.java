@@ -0,0 +1,60 @@
+package com.example.socialmedia.config;
+
+/**
+ * Counts JDBC statements executed by the current thread while a {@link Scope} is open. Fed
+ * by the datasource proxy from {@link QueryMetricsConfig}; statements outside a scope, such
+ * as migrations and scheduled jobs, are not counted.
+ */
+public class QueryCounter {
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    /**
+     * Starts counting on this thread. Scopes nest; closing one restores the enclosing scope.
+     */
+    public Scope open() {
+        Scope scope = new Scope(this, current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    void record(long elapsedMillis) {
+        Scope scope = current.get();
+        if (scope != null) {
+            scope.queries++;
+            scope.elapsedMillis += elapsedMillis;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final QueryCounter counter;
+        private final Scope parent;
+        private long queries;
+        private long elapsedMillis;
+
+        private Scope(QueryCounter counter, Scope parent) {
+            this.counter = counter;
+            this.parent = parent;
+        }
+
+        public long getQueries() {
+            return queries;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public void close() {
+            if (parent != null) {
+                parent.queries += queries;
+                parent.elapsedMillis += elapsedMillis;
+                counter.current.set(parent);
+            } else {
+                counter.current.remove();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.example.socialmedia.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Per-request SQL statement counts, published as the {@code http.server.requests.queries}
+ * distribution summary and checked against budgets by {@link QueryCountFilter}. Its tags match
+ * Spring MVC's {@code http.server.requests} timer, so an endpoint that starts issuing one query
+ * per row (an N+1) shows up as a jump in its percentiles.
+ * <p>
+ * The pool is wrapped in a datasource-proxy, so Hibernate and {@code JdbcTemplate} statements
+ * are both counted. {@code unwrap} still reaches the HikariDataSource, so the
+ * {@code hikaricp.*} pool metrics are unaffected. Statements run on other threads, such as
+ * async sign-in work or feed streams, are not attributed to the request.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.metrics.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfig {
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor(ObjectProvider<QueryCounter> queryCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                        .listener(new CountingListener(queryCounter.getObject()))
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(
+            QueryCounter queryCounter,
+            MeterRegistry meterRegistry,
+            @Value("${app.sql.budget.max-queries:50}") int maxQueries,
+            @Value("${app.sql.budget.mode:log}") QueryCountFilter.Mode mode,
+            @Value("${app.sql.budget.headers:false}") boolean headers) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(
+                new QueryCountFilter(queryCounter, meterRegistry, maxQueries, mode, headers));
+        // Ahead of the security chain, so principal lookups count towards the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static final class CountingListener implements QueryExecutionListener {
+
+        private final QueryCounter queryCounter;
+
+        private CountingListener(QueryCounter queryCounter) {
+            this.queryCounter = queryCounter;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            // One execution is one round trip, however many statements a batch carried
+            queryCounter.record(execInfo.getElapsedTime());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.example.socialmedia.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Warns at startup when an index the repositories rely on is missing, e.g. after a
+ * migration was skipped or an index was dropped by hand. Without them feed, comment and
+ * subscriber queries silently degrade to sequential scans.
+ */
+@Component
+@ConditionalOnProperty(name = "app.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+
+    // Created by db/migration/V2__access_path_indexes.sql
+    static final Map<String, String> EXPECTED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        EXPECTED_INDEXES.put("idx_posts_user_created", "posts (user_id, created_at DESC, id DESC)");
+        EXPECTED_INDEXES.put("idx_comments_post_created", "comments (post_id, created_at DESC, id DESC)");
+        EXPECTED_INDEXES.put("idx_comments_user", "comments (user_id)");
+        EXPECTED_INDEXES.put("idx_user_subscriptions_target", "user_subscriptions (target_id, subscriber_id)");
+        EXPECTED_INDEXES.put("idx_post_likes_user", "post_likes (user_id)");
+        EXPECTED_INDEXES.put("idx_comment_likes_user", "comment_likes (user_id)");
+        EXPECTED_INDEXES.put("uk_users_username", "users (username)");
+        EXPECTED_INDEXES.put("uk_users_email", "users (email)");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        Set<String> present;
+        try {
+            present = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class));
+        } catch (DataAccessException ex) {
+            logger.warn("Could not verify schema indexes: {}", ex.getMessage());
+            return;
+        }
+
+        EXPECTED_INDEXES.forEach((name, definition) -> {
+            if (!present.contains(name)) {
+                logger.warn("Missing index {} on {}; queries using it will fall back to sequential scans", name, definition);
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.example.socialmedia.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method called on a {@code @Service} bean as {@code app.service.calls},
+ * tagged with class, method and the exception thrown, if any. Controllers are already timed
+ * by {@code http.server.requests} and repositories by {@code spring.data.repository.invocations}.
+ * Calls a service makes to itself bypass the proxy and are not timed separately.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "app.metrics.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceMetricsAspect {
+
+    private static final String METRIC = "app.service.calls";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Successful calls are the hot path; resolving their timer once keeps the per-call cost to a map read
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("within(com.example.socialmedia.service..*) && @within(org.springframework.stereotype.Service) "
+            + "&& execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timers.computeIfAbsent(method, key -> timer(key, "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable ex) {
+            timer(method, ex.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+    }
+
+    private Timer timer(Method method, String exception) {
+        return Timer.builder(METRIC)
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
\ No newline at end of file
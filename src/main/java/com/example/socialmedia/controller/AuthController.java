@@ -9,14 +9,19 @@ import com.example.socialmedia.model.User;
 import com.example.socialmedia.repository.RoleRepository;
 import com.example.socialmedia.repository.UserRepository;
 import com.example.socialmedia.security.JwtTokenProvider;
+import com.example.socialmedia.security.PasswordHashingExecutor;
+import com.example.socialmedia.security.UserPrincipal;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,6 +29,7 @@ import javax.validation.Valid;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -32,6 +38,9 @@ import java.util.stream.Collectors;
 @Api(tags = "Authentication", description = "Authentication API")
 public class AuthController {
     
+    private static final String USERNAME_TAKEN = "Error: Username is already taken!";
+    private static final String EMAIL_IN_USE = "Error: Email is already in use!";
+    
     @Autowired
     private AuthenticationManager authenticationManager;
     
@@ -44,62 +53,94 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+    
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor taskExecutor;
+    
     @Autowired
     private JwtTokenProvider tokenProvider;
     
     @PostMapping("/signin")
     @ApiOperation("User Sign In")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
-        
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
-        
-        org.springframework.security.core.userdetails.UserDetails userDetails =
-                (org.springframework.security.core.userdetails.UserDetails) authentication.getPrincipal();
-        
-        User user = userRepository.findByUsername(userDetails.getUsername()).orElseThrow();
-        
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(item -> item.getAuthority())
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(new JwtResponse(
-                jwt,
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                roles));
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        // The password check is a BCrypt hash, so the whole authentication runs on the hashing pool.
+        // That includes the single indexed user lookup, which is small next to the hash and is
+        // allowed for in the pool size (see PasswordHashingExecutor)
+        return passwordHashingExecutor.submit(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())))
+                .thenApply(authentication -> {
+                    String jwt = tokenProvider.generateToken(authentication);
+                    UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+                    
+                    List<String> roles = principal.getAuthorities().stream()
+                            .map(item -> item.getAuthority())
+                            .collect(Collectors.toList());
+                    
+                    return ResponseEntity.ok(new JwtResponse(
+                            jwt,
+                            principal.getId(),
+                            principal.getUsername(),
+                            principal.getEmail(),
+                            roles));
+                });
     }
     
     @PostMapping("/signup")
     @ApiOperation("User Sign Up")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signupRequest) {
-        if (userRepository.existsByUsername(signupRequest.getUsername())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already taken!"));
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signupRequest) {
+        // Cheap rejection before spending a hash; the unique indexes still decide concurrent sign-ups
+        List<String> taken = userRepository.findUsernamesByUsernameOrEmail(
+                signupRequest.getUsername(), signupRequest.getEmail());
+        if (!taken.isEmpty()) {
+            String message = taken.contains(signupRequest.getUsername()) ? USERNAME_TAKEN : EMAIL_IN_USE;
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new MessageResponse(message)));
         }
         
-        if (userRepository.existsByEmail(signupRequest.getEmail())) {
-            return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already in use!"));
-        }
-        
-        // Create new user's account
-        User user = new User();
-        user.setUsername(signupRequest.getUsername());
-        user.setEmail(signupRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
-        
-        Set<Role> roles = new HashSet<>();
-        
-        // By default, assign ROLE_USER
-        Role userRole = roleRepository.findByName(Role.ERole.ROLE_USER)
+        Role role = defaultRole();
+        // Only the hash runs on the hashing pool; the insert continues on the application executor
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(signupRequest.getPassword()))
+                .thenApplyAsync(hash -> {
+                    // Create new user's account
+                    User user = new User();
+                    user.setUsername(signupRequest.getUsername());
+                    user.setEmail(signupRequest.getEmail());
+                    user.setPassword(hash);
+                    
+                    // By default, assign ROLE_USER
+                    Set<Role> roles = new HashSet<>();
+                    roles.add(role);
+                    user.setRoles(roles);
+                    
+                    try {
+                        userRepository.saveAndFlush(user);
+                    } catch (DataIntegrityViolationException ex) {
+                        return ResponseEntity.badRequest().body(new MessageResponse(conflictMessage(ex)));
+                    }
+                    return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+                }, taskExecutor);
+    }
+    
+    private Role defaultRole() {
+        // Served from the role query cache after the first sign-up
+        return roleRepository.findByName(Role.ERole.ROLE_USER)
                 .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-        roles.add(userRole);
-        
-        user.setRoles(roles);
-        userRepository.save(user);
-        
-        return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+    }
+    
+    private static String conflictMessage(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraint = ((ConstraintViolationException) cause).getConstraintName();
+                if ("uk_users_email".equals(constraint)) {
+                    return EMAIL_IN_USE;
+                }
+                if ("uk_users_username".equals(constraint)) {
+                    return USERNAME_TAKEN;
+                }
+            }
+        }
+        throw ex;
     }
 }
\ No newline at end of file
@@ -1,18 +1,25 @@
 package com.example.socialmedia.controller;
 
 import com.example.socialmedia.dto.CommentRequest;
+import com.example.socialmedia.dto.CommentResponse;
+import com.example.socialmedia.dto.CursorPage;
 import com.example.socialmedia.dto.MessageResponse;
 import com.example.socialmedia.model.Comment;
+import com.example.socialmedia.service.NdjsonWriter;
 import com.example.socialmedia.service.CommentService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
-import java.util.List;
+import java.io.IOException;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -25,27 +32,38 @@ public class CommentController {
     
     @GetMapping
     @ApiOperation("Get All Comments")
-    public List<Comment> getAllComments() {
-        return commentService.getAllComments();
+    public Slice<CommentResponse> getAllComments(@PageableDefault(size = 20) Pageable pageable) {
+        return commentService.getAllComments(pageable);
+    }
+    
+    @GetMapping(value = "/export", produces = NdjsonWriter.CONTENT_TYPE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @ApiOperation("Export All Comments as NDJSON")
+    public void exportComments(HttpServletResponse response) throws IOException {
+        response.setContentType(NdjsonWriter.CONTENT_TYPE);
+        commentService.exportComments(response.getOutputStream());
     }
     
     @GetMapping("/{id}")
     @ApiOperation("Get Comment by ID")
-    public ResponseEntity<Comment> getCommentById(@PathVariable Long id) {
-        Comment comment = commentService.getCommentById(id);
+    public ResponseEntity<CommentResponse> getCommentById(@PathVariable Long id) {
+        CommentResponse comment = commentService.getCommentResponse(id);
         return ResponseEntity.ok(comment);
     }
     
     @GetMapping("/post/{postId}")
     @ApiOperation("Get Comments by Post")
-    public List<Comment> getCommentsByPost(@PathVariable Long postId) {
-        return commentService.getCommentsByPost(postId);
+    public CursorPage<CommentResponse> getCommentsByPost(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return commentService.getCommentsByPost(postId, cursor, size);
     }
     
     @PostMapping("/post/{postId}/user/{userId}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     @ApiOperation("Create Comment")
-    public ResponseEntity<Comment> createComment(
+    public ResponseEntity<CommentResponse> createComment(
             @Valid @RequestBody CommentRequest commentRequest,
             @PathVariable Long postId,
             @PathVariable Long userId) {
@@ -53,21 +71,21 @@ public class CommentController {
         Comment comment = new Comment();
         comment.setContent(commentRequest.getContent());
         
-        Comment createdComment = commentService.createComment(comment, postId, userId);
+        CommentResponse createdComment = commentService.createComment(comment, postId, userId);
         return ResponseEntity.ok(createdComment);
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     @ApiOperation("Update Comment")
-    public ResponseEntity<Comment> updateComment(
+    public ResponseEntity<CommentResponse> updateComment(
             @PathVariable Long id,
             @Valid @RequestBody CommentRequest commentRequest) {
         
         Comment commentDetails = new Comment();
         commentDetails.setContent(commentRequest.getContent());
         
-        Comment updatedComment = commentService.updateComment(id, commentDetails);
+        CommentResponse updatedComment = commentService.updateComment(id, commentDetails);
         return ResponseEntity.ok(updatedComment);
     }
     
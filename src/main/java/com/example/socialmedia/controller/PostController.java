@@ -1,17 +1,31 @@
 package com.example.socialmedia.controller;
 
+import com.example.socialmedia.config.QueryBudget;
+import com.example.socialmedia.dto.CursorPage;
 import com.example.socialmedia.dto.MessageResponse;
 import com.example.socialmedia.dto.PostRequest;
+import com.example.socialmedia.dto.PostResponse;
+import com.example.socialmedia.dto.PostSearchHit;
 import com.example.socialmedia.model.Post;
+import com.example.socialmedia.service.FeedEventBus;
+import com.example.socialmedia.service.NdjsonWriter;
+import com.example.socialmedia.service.PostSearchService;
 import com.example.socialmedia.service.PostService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -23,37 +37,89 @@ public class PostController {
     @Autowired
     private PostService postService;
     
+    @Autowired
+    private FeedEventBus feedEventBus;
+    
+    @Autowired
+    private PostSearchService postSearchService;
+    
     @GetMapping
+    @QueryBudget(5)
     @ApiOperation("Get All Posts")
-    public List<Post> getAllPosts() {
-        return postService.getAllPosts();
+    public Slice<PostResponse> getAllPosts(@PageableDefault(size = 20) Pageable pageable) {
+        return postService.getAllPosts(pageable);
+    }
+    
+    @GetMapping(value = "/export", produces = NdjsonWriter.CONTENT_TYPE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @ApiOperation("Export All Posts as NDJSON")
+    public void exportPosts(HttpServletResponse response) throws IOException {
+        response.setContentType(NdjsonWriter.CONTENT_TYPE);
+        postService.exportPosts(response.getOutputStream());
+    }
+    
+    @GetMapping("/trending")
+    @QueryBudget(3)
+    @ApiOperation("Get Trending Posts")
+    public List<PostResponse> getTrendingPosts(@RequestParam(defaultValue = "20") int limit) {
+        return postService.getTrendingPosts(limit);
+    }
+    
+    @GetMapping("/search")
+    @QueryBudget(3)
+    @ApiOperation("Search Posts")
+    public Slice<PostSearchHit> searchPosts(
+            @RequestParam("q") String query,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return postSearchService.search(query, pageable);
+    }
+    
+    @PostMapping("/search/reindex")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ApiOperation("Rebuild the Post Search Index")
+    public ResponseEntity<MessageResponse> reindexPosts() {
+        postSearchService.requestReindex();
+        return ResponseEntity.accepted().body(new MessageResponse("Post search reindex started"));
     }
     
     @GetMapping("/{id}")
+    @QueryBudget(5)
     @ApiOperation("Get Post by ID")
-    public ResponseEntity<Post> getPostById(@PathVariable Long id) {
-        Post post = postService.getPostById(id);
+    public ResponseEntity<PostResponse> getPostById(@PathVariable Long id) {
+        PostResponse post = postService.getPostResponse(id);
         postService.incrementViewCount(id);
         return ResponseEntity.ok(post);
     }
     
     @GetMapping("/user/{userId}")
+    @QueryBudget(5)
     @ApiOperation("Get Posts by User")
-    public List<Post> getPostsByUser(@PathVariable Long userId) {
+    public List<PostResponse> getPostsByUser(@PathVariable Long userId) {
         return postService.getPostsByUser(userId);
     }
     
     @GetMapping("/feed/{userId}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    @QueryBudget(10)
     @ApiOperation("Get Feed Posts")
-    public List<Post> getFeedPosts(@PathVariable Long userId) {
-        return postService.getFeedPosts(userId);
+    public CursorPage<PostResponse> getFeedPosts(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return postService.getFeedPosts(userId, cursor, size);
+    }
+    
+    @GetMapping(value = "/feed/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    @ApiOperation("Stream New Feed Posts")
+    public SseEmitter streamFeed(@PathVariable Long userId) {
+        return feedEventBus.subscribe(userId);
     }
     
     @PostMapping("/user/{userId}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     @ApiOperation("Create Post")
-    public ResponseEntity<Post> createPost(
+    public ResponseEntity<PostResponse> createPost(
             @Valid @RequestBody PostRequest postRequest,
             @PathVariable Long userId) {
         
@@ -61,14 +127,14 @@ public class PostController {
         post.setTitle(postRequest.getTitle());
         post.setContent(postRequest.getContent());
         
-        Post createdPost = postService.createPost(post, userId);
+        PostResponse createdPost = postService.createPost(post, userId);
         return ResponseEntity.ok(createdPost);
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     @ApiOperation("Update Post")
-    public ResponseEntity<Post> updatePost(
+    public ResponseEntity<PostResponse> updatePost(
             @PathVariable Long id,
             @Valid @RequestBody PostRequest postRequest) {
         
@@ -76,7 +142,7 @@ public class PostController {
         postDetails.setTitle(postRequest.getTitle());
         postDetails.setContent(postRequest.getContent());
         
-        Post updatedPost = postService.updatePost(id, postDetails);
+        PostResponse updatedPost = postService.updatePost(id, postDetails);
         return ResponseEntity.ok(updatedPost);
     }
     
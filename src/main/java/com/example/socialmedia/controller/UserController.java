@@ -1,17 +1,27 @@
 package com.example.socialmedia.controller;
 
+import com.example.socialmedia.dto.BatchSubscribeRequest;
 import com.example.socialmedia.dto.MessageResponse;
+import com.example.socialmedia.dto.UserRecommendation;
+import com.example.socialmedia.dto.UserResponse;
+import com.example.socialmedia.dto.UserSummary;
 import com.example.socialmedia.model.User;
+import com.example.socialmedia.service.NdjsonWriter;
 import com.example.socialmedia.service.UserService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
 import java.util.List;
-import java.util.Set;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -25,31 +35,39 @@ public class UserController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @ApiOperation("Get All Users")
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public Slice<UserResponse> getAllUsers(@PageableDefault(size = 20) Pageable pageable) {
+        return userService.getAllUsers(pageable);
+    }
+    
+    @GetMapping(value = "/export", produces = NdjsonWriter.CONTENT_TYPE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @ApiOperation("Export All Users as NDJSON")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(NdjsonWriter.CONTENT_TYPE);
+        userService.exportUsers(response.getOutputStream());
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     @ApiOperation("Get User by ID")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        User user = userService.getUserById(id);
+    public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
+        UserResponse user = userService.getUserResponse(id);
         return ResponseEntity.ok(user);
     }
     
     @GetMapping("/username/{username}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     @ApiOperation("Get User by Username")
-    public ResponseEntity<User> getUserByUsername(@PathVariable String username) {
-        User user = userService.getUserByUsername(username);
+    public ResponseEntity<UserResponse> getUserByUsername(@PathVariable String username) {
+        UserResponse user = userService.getUserByUsername(username);
         return ResponseEntity.ok(user);
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     @ApiOperation("Update User")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
-        User updatedUser = userService.updateUser(id, userDetails);
+    public ResponseEntity<UserResponse> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
+        UserResponse updatedUser = userService.updateUser(id, userDetails);
         return ResponseEntity.ok(updatedUser);
     }
     
@@ -67,8 +85,19 @@ public class UserController {
     public ResponseEntity<MessageResponse> subscribeToUser(
             @PathVariable Long subscriberId,
             @PathVariable Long targetId) {
-        userService.subscribeToUser(subscriberId, targetId);
-        return ResponseEntity.ok(new MessageResponse("Subscribed successfully"));
+        boolean subscribed = userService.subscribeToUser(subscriberId, targetId);
+        String message = subscribed ? "Subscribed successfully" : "Already subscribed";
+        return ResponseEntity.ok(new MessageResponse(message));
+    }
+    
+    @PostMapping("/{subscriberId}/subscriptions")
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    @ApiOperation("Subscribe to Users in Bulk")
+    public ResponseEntity<MessageResponse> subscribeToUsers(
+            @PathVariable Long subscriberId,
+            @Valid @RequestBody BatchSubscribeRequest request) {
+        long added = userService.subscribeToUsers(subscriberId, request.getTargetIds());
+        return ResponseEntity.ok(new MessageResponse("Subscribed to " + added + " new users"));
     }
     
     @PostMapping("/{subscriberId}/unsubscribe/{targetId}")
@@ -77,23 +106,35 @@ public class UserController {
     public ResponseEntity<MessageResponse> unsubscribeFromUser(
             @PathVariable Long subscriberId,
             @PathVariable Long targetId) {
-        userService.unsubscribeFromUser(subscriberId, targetId);
-        return ResponseEntity.ok(new MessageResponse("Unsubscribed successfully"));
+        boolean unsubscribed = userService.unsubscribeFromUser(subscriberId, targetId);
+        String message = unsubscribed ? "Unsubscribed successfully" : "Was not subscribed";
+        return ResponseEntity.ok(new MessageResponse(message));
     }
     
     @GetMapping("/{userId}/subscriptions")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     @ApiOperation("Get User Subscriptions")
-    public ResponseEntity<Set<User>> getUserSubscriptions(@PathVariable Long userId) {
-        Set<User> subscriptions = userService.getUserSubscriptions(userId);
-        return ResponseEntity.ok(subscriptions);
+    public Slice<UserSummary> getUserSubscriptions(
+            @PathVariable Long userId,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return userService.getUserSubscriptions(userId, pageable);
+    }
+    
+    @GetMapping("/{userId}/recommendations")
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    @ApiOperation("Get People You May Know")
+    public List<UserRecommendation> getRecommendations(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "20") int limit) {
+        return userService.getRecommendations(userId, limit);
     }
     
     @GetMapping("/{userId}/subscribers")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     @ApiOperation("Get User Subscribers")
-    public ResponseEntity<Set<User>> getUserSubscribers(@PathVariable Long userId) {
-        Set<User> subscribers = userService.getUserSubscribers(userId);
-        return ResponseEntity.ok(subscribers);
+    public Slice<UserSummary> getUserSubscribers(
+            @PathVariable Long userId,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return userService.getUserSubscribers(userId, pageable);
     }
 }
\ No newline at end of file
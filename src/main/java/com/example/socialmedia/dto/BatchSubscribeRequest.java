@@ -0,0 +1,16 @@
+package com.example.socialmedia.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class BatchSubscribeRequest {
+    
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotNull Long> targetIds;
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.socialmedia.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class CommentResponse {
+    private Long id;
+    private String content;
+    private Long postId;
+    private UserSummary author;
+    private Long likeCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // Flat signature so it can be used from JPQL constructor expressions
+    public CommentResponse(Long id, String content, Long postId,
+                           Long authorId, String authorUsername, String authorProfilePicture,
+                           Long likeCount, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.content = content;
+        this.postId = postId;
+        this.author = new UserSummary(authorId, authorUsername, authorProfilePicture);
+        this.likeCount = likeCount;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
\ No newline at end of file
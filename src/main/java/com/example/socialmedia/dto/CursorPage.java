@@ -0,0 +1,27 @@
+package com.example.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    
+    /**
+     * Builds a page from a window fetched with {@code limit + 1} rows; the extra row only
+     * signals that another page exists and is never returned.
+     */
+    public static <T> CursorPage<T> of(List<T> window, int limit, Function<T, PageCursor> cursorOf) {
+        if (window.size() <= limit) {
+            return new CursorPage<>(window, null);
+        }
+        List<T> content = new ArrayList<>(window.subList(0, limit));
+        return new CursorPage<>(content, cursorOf.apply(content.get(limit - 1)).encode());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.socialmedia.dto;
+
+import com.example.socialmedia.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position on {@code (createdAt, id)}. Clients only ever see the encoded form,
+ * so the layout can change without breaking the API.
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+    
+    private static final char SEPARATOR = '|';
+    
+    private final LocalDateTime createdAt;
+    private final Long id;
+    
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException ex) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.socialmedia.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class PostResponse {
+    private Long id;
+    private String title;
+    private String content;
+    private UserSummary author;
+    private Long viewCount;
+    private Long likeCount;
+    private Long commentCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // Flat signature so it can be used from JPQL constructor expressions
+    public PostResponse(Long id, String title, String content,
+                        Long authorId, String authorUsername, String authorProfilePicture,
+                        Long viewCount, Long likeCount, Long commentCount,
+                        LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.content = content;
+        this.author = new UserSummary(authorId, authorUsername, authorProfilePicture);
+        this.viewCount = viewCount;
+        this.likeCount = likeCount;
+        this.commentCount = commentCount;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
\ No newline at end of file
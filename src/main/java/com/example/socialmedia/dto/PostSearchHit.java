@@ -0,0 +1,24 @@
+package com.example.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A search result built from the fields stored in the search index, without a database read.
+ * Counters are left out since the index does not track them; fetch the post for those.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSearchHit {
+    private Long id;
+    private String title;
+    private String content;
+    private Long authorId;
+    private String authorUsername;
+    private LocalDateTime createdAt;
+    private float score;
+}
\ No newline at end of file
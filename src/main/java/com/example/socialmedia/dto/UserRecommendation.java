@@ -0,0 +1,13 @@
+package com.example.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRecommendation {
+    private UserSummary user;
+    private int sharedFollowees;
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.socialmedia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserResponse {
+    private Long id;
+    private String username;
+    private String email;
+    private String bio;
+    private String profilePicture;
+    private Long subscriptionCount;
+    private Long subscriberCount;
+    private LocalDateTime createdAt;
+}
\ No newline at end of file
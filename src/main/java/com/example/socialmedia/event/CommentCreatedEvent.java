@@ -0,0 +1,12 @@
+package com.example.socialmedia.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CommentCreatedEvent {
+    private final Long commentId;
+    private final Long postId;
+    private final Long userId;
+}
\ No newline at end of file
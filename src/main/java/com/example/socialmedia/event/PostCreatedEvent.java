@@ -0,0 +1,17 @@
+package com.example.socialmedia.event;
+
+import com.example.socialmedia.dto.PostResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class PostCreatedEvent {
+    private final Long postId;
+    private final Long authorId;
+    private final LocalDateTime createdAt;
+    // What the author got back, reused by listeners that push the post to clients
+    private final PostResponse post;
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.socialmedia.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PostDeletedEvent {
+    private final Long postId;
+}
\ No newline at end of file
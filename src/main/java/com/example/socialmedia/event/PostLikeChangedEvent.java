@@ -0,0 +1,12 @@
+package com.example.socialmedia.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PostLikeChangedEvent {
+    private final Long postId;
+    private final Long userId;
+    private final boolean liked;
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.socialmedia.event;
+
+import com.example.socialmedia.dto.PostResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PostUpdatedEvent {
+    private final PostResponse post;
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.socialmedia.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class SubscriptionChangedEvent {
+    private final Long subscriberId;
+    private final List<Long> targetIds;
+    private final boolean subscribed;
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.socialmedia.exception;
+
+/**
+ * Thrown in {@code app.sql.budget.mode=fail} when a request ran more statements than its
+ * budget. Raised after the handler completed, so it surfaces in MockMvc tests rather than
+ * as an error response.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+    
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
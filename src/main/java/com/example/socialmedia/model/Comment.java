@@ -1,5 +1,6 @@
 package com.example.socialmedia.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,7 +19,8 @@ import java.util.Set;
 public class Comment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_id_seq")
+    @SequenceGenerator(name = "comments_id_seq", sequenceName = "comments_id_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -37,8 +39,13 @@ public class Comment {
     @JoinTable(name = "comment_likes",
             joinColumns = @JoinColumn(name = "comment_id"),
             inverseJoinColumns = @JoinColumn(name = "user_id"))
+    @JsonIgnore
     private Set<User> likes = new HashSet<>();
     
+    // Maintained by LikeRepository; never written back from a possibly stale entity
+    @Column(name = "like_count", columnDefinition = "BIGINT NOT NULL DEFAULT 0", updatable = false)
+    private Long likeCount = 0L;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -55,12 +62,4 @@ public class Comment {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
-    
-    public boolean addLike(User user) {
-        return likes.add(user);
-    }
-    
-    public boolean removeLike(User user) {
-        return likes.remove(user);
-    }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.example.socialmedia.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -15,13 +18,15 @@ import java.util.Set;
 
 @Entity
 @Table(name = "posts")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "posts")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Post {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posts_id_seq")
+    @SequenceGenerator(name = "posts_id_seq", sequenceName = "posts_id_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -42,9 +47,14 @@ public class Post {
     @JoinTable(name = "post_likes",
             joinColumns = @JoinColumn(name = "post_id"),
             inverseJoinColumns = @JoinColumn(name = "user_id"))
+    @JsonIgnore
     private Set<User> likes = new HashSet<>();
     
-    @Column(name = "view_count")
+    // Maintained by LikeRepository; never written back from a possibly stale entity
+    @Column(name = "like_count", columnDefinition = "BIGINT NOT NULL DEFAULT 0", updatable = false)
+    private Long likeCount = 0L;
+    
+    @Column(name = "view_count", updatable = false)
     private Long viewCount = 0L;
     
     @Column(name = "created_at")
@@ -63,16 +73,4 @@ public class Post {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
-    
-    public void incrementViewCount() {
-        this.viewCount++;
-    }
-    
-    public boolean addLike(User user) {
-        return likes.add(user);
-    }
-    
-    public boolean removeLike(User user) {
-        return likes.remove(user);
-    }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package com.example.socialmedia.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
@@ -14,13 +16,15 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -47,7 +51,9 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Cached with the user because it is loaded eagerly; the subscription collections are not
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -62,6 +68,13 @@ public class User {
     @ManyToMany(mappedBy = "subscriptions")
     private Set<User> subscribers = new HashSet<>();
     
+    // Maintained by SubscriptionRepository; never written back from a possibly stale entity
+    @Column(name = "follower_count", columnDefinition = "BIGINT NOT NULL DEFAULT 0", updatable = false)
+    private Long followerCount = 0L;
+    
+    @Column(name = "following_count", columnDefinition = "BIGINT NOT NULL DEFAULT 0", updatable = false)
+    private Long followingCount = 0L;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -1,13 +1,59 @@
 package com.example.socialmedia.repository;
 
+import com.example.socialmedia.dto.CommentResponse;
 import com.example.socialmedia.model.Comment;
-import com.example.socialmedia.model.Post;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByPostOrderByCreatedAtDesc(Post post);
+    
+    String COMMENT_RESPONSE = "SELECT new com.example.socialmedia.dto.CommentResponse(" +
+            "c.id, c.content, c.post.id, u.id, u.username, u.profilePicture, c.likeCount, c.createdAt, c.updatedAt) " +
+            "FROM Comment c JOIN c.user u ";
+    
+    @Query(COMMENT_RESPONSE + "WHERE c.id = :id")
+    Optional<CommentResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(COMMENT_RESPONSE + "ORDER BY c.id")
+    Slice<CommentResponse> findAllResponses(Pageable pageable);
+    
+    @Query(COMMENT_RESPONSE + "ORDER BY c.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<CommentResponse> streamAllResponses();
+    
+    /*
+     * Comment pages are read from the post outwards: the post row is always present, so an
+     * empty result means the post does not exist, and a single row with a null comment id
+     * means it exists but has no (further) comments. Keyset conditions live in the ON clause
+     * so they cannot filter that marker row away.
+     */
+    String POST_COMMENT_RESPONSE = "SELECT new com.example.socialmedia.dto.CommentResponse(" +
+            "c.id, c.content, p.id, u.id, u.username, u.profilePicture, c.likeCount, c.createdAt, c.updatedAt) " +
+            "FROM Post p LEFT JOIN Comment c ON c.post = p ";
+    
+    String POST_COMMENT_ORDER = "LEFT JOIN User u ON u.id = c.user.id " +
+            "WHERE p.id = :postId ORDER BY c.createdAt DESC, c.id DESC";
+    
+    @Query(POST_COMMENT_RESPONSE + POST_COMMENT_ORDER)
+    List<CommentResponse> findPageByPostId(@Param("postId") Long postId, Pageable pageable);
+    
+    @Query(POST_COMMENT_RESPONSE +
+            "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+            POST_COMMENT_ORDER)
+    List<CommentResponse> findPageByPostIdBefore(@Param("postId") Long postId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
 }
\ No newline at end of file
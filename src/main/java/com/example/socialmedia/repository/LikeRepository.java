@@ -0,0 +1,63 @@
+package com.example.socialmedia.repository;
+
+import com.example.socialmedia.model.Post;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Likes are written straight to the join tables instead of through the {@code likes}
+ * collections. Each statement inserts or deletes the join row and adjusts the denormalized
+ * {@code like_count} in one round trip, so the counter only moves when the row did. Cached
+ * posts are evicted when their count changes.
+ */
+@Repository
+public class LikeRepository {
+    
+    private static final String LIKE_POST_SQL =
+            "WITH changed AS (INSERT INTO post_likes (post_id, user_id) VALUES (?, ?) " +
+            "ON CONFLICT DO NOTHING RETURNING post_id) " +
+            "UPDATE posts SET like_count = like_count + 1 WHERE id IN (SELECT post_id FROM changed)";
+    
+    private static final String UNLIKE_POST_SQL =
+            "WITH changed AS (DELETE FROM post_likes WHERE post_id = ? AND user_id = ? RETURNING post_id) " +
+            "UPDATE posts SET like_count = like_count - 1 WHERE id IN (SELECT post_id FROM changed)";
+    
+    private static final String LIKE_COMMENT_SQL =
+            "WITH changed AS (INSERT INTO comment_likes (comment_id, user_id) VALUES (?, ?) " +
+            "ON CONFLICT DO NOTHING RETURNING comment_id) " +
+            "UPDATE comments SET like_count = like_count + 1 WHERE id IN (SELECT comment_id FROM changed)";
+    
+    private static final String UNLIKE_COMMENT_SQL =
+            "WITH changed AS (DELETE FROM comment_likes WHERE comment_id = ? AND user_id = ? RETURNING comment_id) " +
+            "UPDATE comments SET like_count = like_count - 1 WHERE id IN (SELECT comment_id FROM changed)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private SecondLevelCacheEvictor cacheEvictor;
+    
+    public boolean likePost(Long postId, Long userId) {
+        return evictIfChanged(jdbcTemplate.update(LIKE_POST_SQL, postId, userId) > 0, postId);
+    }
+    
+    public boolean unlikePost(Long postId, Long userId) {
+        return evictIfChanged(jdbcTemplate.update(UNLIKE_POST_SQL, postId, userId) > 0, postId);
+    }
+    
+    public boolean likeComment(Long commentId, Long userId) {
+        return jdbcTemplate.update(LIKE_COMMENT_SQL, commentId, userId) > 0;
+    }
+    
+    public boolean unlikeComment(Long commentId, Long userId) {
+        return jdbcTemplate.update(UNLIKE_COMMENT_SQL, commentId, userId) > 0;
+    }
+    
+    private boolean evictIfChanged(boolean changed, Long postId) {
+        if (changed) {
+            cacheEvictor.evict(Post.class, postId);
+        }
+        return changed;
+    }
+}
\ No newline at end of file
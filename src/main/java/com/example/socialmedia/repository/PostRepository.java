@@ -1,18 +1,74 @@
 package com.example.socialmedia.repository;
 
+import com.example.socialmedia.dto.PostResponse;
 import com.example.socialmedia.model.Post;
-import com.example.socialmedia.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
-    List<Post> findByUserOrderByCreatedAtDesc(User user);
     
-    @Query("SELECT p FROM Post p WHERE p.user IN :users ORDER BY p.createdAt DESC")
-    List<Post> findPostsByUsersOrderByCreatedAtDesc(@Param("users") List<User> users);
+    String POST_RESPONSE = "SELECT new com.example.socialmedia.dto.PostResponse(" +
+            "p.id, p.title, p.content, u.id, u.username, u.profilePicture, p.viewCount, p.likeCount, " +
+            "(SELECT COUNT(c) FROM Comment c WHERE c.post = p), p.createdAt, p.updatedAt) " +
+            "FROM Post p JOIN p.user u ";
+    
+    String IN_FEED = "(u.id = :userId OR u.id IN " +
+            "(SELECT t.id FROM User f JOIN f.subscriptions t WHERE f.id = :userId)) ";
+    
+    @Query(POST_RESPONSE + "WHERE p.id = :id")
+    Optional<PostResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(POST_RESPONSE + "WHERE p.id IN :ids")
+    List<PostResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query(POST_RESPONSE + "ORDER BY p.id")
+    Slice<PostResponse> findAllResponses(Pageable pageable);
+    
+    @Query(POST_RESPONSE + "ORDER BY p.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<PostResponse> streamAllResponses();
+    
+    @Query(POST_RESPONSE + "WHERE u.id = :userId ORDER BY p.createdAt DESC")
+    List<PostResponse> findResponsesByUserId(@Param("userId") Long userId);
+    
+    @Query(POST_RESPONSE + "WHERE " + IN_FEED + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostResponse> findFeed(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(POST_RESPONSE + "WHERE " + IN_FEED +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostResponse> findFeedBefore(@Param("userId") Long userId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+    
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.user.id = :userId OR p.user.id IN " +
+            "(SELECT t.id FROM User u JOIN u.subscriptions t WHERE u.id = :userId) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findFeedKeys(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.user.id IN :authorIds " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findKeysByAuthors(@Param("authorIds") List<Long> authorIds, Pageable pageable);
+    
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.user.id IN :authorIds " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findKeysByAuthorsBefore(@Param("authorIds") List<Long> authorIds,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
 }
\ No newline at end of file
@@ -2,11 +2,18 @@ package com.example.socialmedia.repository;
 
 import com.example.socialmedia.model.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    
+    // Roles are seeded by migrations and never change, so the lookup is served from the query cache
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = "role-queries")})
     Optional<Role> findByName(Role.ERole name);
 }
\ No newline at end of file
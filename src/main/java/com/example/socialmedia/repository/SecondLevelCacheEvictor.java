@@ -0,0 +1,49 @@
+package com.example.socialmedia.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Evicts second-level cache entries for rows changed with plain SQL, which Hibernate does not
+ * see. Entries are dropped straight away and again after commit, so a reader that loads the
+ * row before the commit cannot leave the old version cached.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    public void evict(Class<?> entityClass, Object id) {
+        evict(entityClass, Collections.singletonList(id));
+    }
+    
+    public void evict(Class<?> entityClass, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        runNowAndAfterCommit(() -> ids.forEach(id -> entityManagerFactory.getCache().evict(entityClass, id)));
+    }
+    
+    public void evictAll(Class<?> entityClass) {
+        runNowAndAfterCommit(() -> entityManagerFactory.getCache().evict(entityClass));
+    }
+    
+    private static void runNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
\ No newline at end of file
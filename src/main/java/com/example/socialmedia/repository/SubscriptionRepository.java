@@ -0,0 +1,111 @@
+package com.example.socialmedia.repository;
+
+import com.example.socialmedia.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Follows are written straight to {@code user_subscriptions} instead of through the
+ * {@code subscriptions} collection, which would load every followee first. Each statement
+ * changes the join rows and both users' {@code follower_count}/{@code following_count} in
+ * one round trip, so the counters only move when a row did. Users whose counters moved are
+ * evicted from the second-level cache.
+ */
+@Repository
+public class SubscriptionRepository {
+    
+    private static final String FOLLOW_SQL =
+            "WITH changed AS (INSERT INTO user_subscriptions (subscriber_id, target_id) VALUES (?, ?) " +
+            "ON CONFLICT DO NOTHING RETURNING subscriber_id, target_id), " +
+            "targets AS (UPDATE users SET follower_count = follower_count + 1 " +
+            "WHERE id IN (SELECT target_id FROM changed)) " +
+            "UPDATE users SET following_count = following_count + 1 WHERE id IN (SELECT subscriber_id FROM changed)";
+    
+    private static final String UNFOLLOW_SQL =
+            "WITH changed AS (DELETE FROM user_subscriptions WHERE subscriber_id = ? AND target_id = ? " +
+            "RETURNING subscriber_id, target_id), " +
+            "targets AS (UPDATE users SET follower_count = follower_count - 1 " +
+            "WHERE id IN (SELECT target_id FROM changed)) " +
+            "UPDATE users SET following_count = following_count - 1 WHERE id IN (SELECT subscriber_id FROM changed)";
+    
+    // Unknown and self targets are filtered by the join on users rather than failing the batch;
+    // the data-modifying CTEs run even though the final SELECT only reads the new rows
+    private static final String FOLLOW_ALL_SQL =
+            "WITH changed AS (INSERT INTO user_subscriptions (subscriber_id, target_id) " +
+            "SELECT ?, t.id FROM users t WHERE t.id = ANY (?) AND t.id <> ? " +
+            "ON CONFLICT DO NOTHING RETURNING target_id), " +
+            "targets AS (UPDATE users SET follower_count = follower_count + 1 " +
+            "WHERE id IN (SELECT target_id FROM changed)), " +
+            "subscriber AS (UPDATE users SET following_count = following_count + (SELECT COUNT(*) FROM changed) " +
+            "WHERE id = ?) " +
+            "SELECT target_id FROM changed";
+    
+    private static final String REMOVE_FOLLOWING_SQL =
+            "WITH removed AS (DELETE FROM user_subscriptions WHERE subscriber_id = ? RETURNING target_id) " +
+            "UPDATE users SET follower_count = follower_count - 1 WHERE id IN (SELECT target_id FROM removed)";
+    
+    private static final String REMOVE_FOLLOWERS_SQL =
+            "WITH removed AS (DELETE FROM user_subscriptions WHERE target_id = ? RETURNING subscriber_id) " +
+            "UPDATE users SET following_count = following_count - 1 WHERE id IN (SELECT subscriber_id FROM removed)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private SecondLevelCacheEvictor cacheEvictor;
+    
+    public boolean follow(Long subscriberId, Long targetId) {
+        return evictIfChanged(jdbcTemplate.update(FOLLOW_SQL, subscriberId, targetId) > 0, subscriberId, targetId);
+    }
+    
+    public boolean unfollow(Long subscriberId, Long targetId) {
+        return evictIfChanged(jdbcTemplate.update(UNFOLLOW_SQL, subscriberId, targetId) > 0, subscriberId, targetId);
+    }
+    
+    /**
+     * Follows every existing user in {@code targetIds} with a single statement and returns
+     * the ids that were not followed before.
+     */
+    public List<Long> followAll(Long subscriberId, Collection<Long> targetIds) {
+        List<Long> added = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FOLLOW_ALL_SQL);
+            Array targets = connection.createArrayOf("bigint", targetIds.toArray());
+            statement.setLong(1, subscriberId);
+            statement.setArray(2, targets);
+            statement.setLong(3, subscriberId);
+            statement.setLong(4, subscriberId);
+            return statement;
+        }, (rs, rowNum) -> rs.getLong(1));
+        if (!added.isEmpty()) {
+            List<Long> changed = new ArrayList<>(added);
+            changed.add(subscriberId);
+            cacheEvictor.evict(User.class, changed);
+        }
+        return added;
+    }
+    
+    /**
+     * Drops every follow from and to the user, adjusting the other side's counters.
+     */
+    public void removeAll(Long userId) {
+        jdbcTemplate.update(REMOVE_FOLLOWING_SQL, userId);
+        jdbcTemplate.update(REMOVE_FOLLOWERS_SQL, userId);
+        // The counters of every follower and followee moved; cheaper to drop the region than to list them
+        cacheEvictor.evictAll(User.class);
+    }
+    
+    private boolean evictIfChanged(boolean changed, Long subscriberId, Long targetId) {
+        if (changed) {
+            cacheEvictor.evict(User.class, Arrays.asList(subscriberId, targetId));
+        }
+        return changed;
+    }
+}
\ No newline at end of file
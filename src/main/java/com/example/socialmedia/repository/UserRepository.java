@@ -1,15 +1,70 @@
 package com.example.socialmedia.repository;
 
+import com.example.socialmedia.dto.UserResponse;
+import com.example.socialmedia.dto.UserSummary;
 import com.example.socialmedia.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    
+    String USER_RESPONSE = "SELECT new com.example.socialmedia.dto.UserResponse(" +
+            "u.id, u.username, u.email, u.bio, u.profilePicture, u.followingCount, u.followerCount, u.createdAt) " +
+            "FROM User u ";
+    
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
-    Boolean existsByUsername(String username);
-    Boolean existsByEmail(String email);
+    
+    // Usernames of the accounts that already hold the username or the email, in one round trip
+    @Query("SELECT u.username FROM User u WHERE u.username = :username OR u.email = :email")
+    List<String> findUsernamesByUsernameOrEmail(@Param("username") String username, @Param("email") String email);
+    
+    @Query(USER_RESPONSE + "WHERE u.id = :id")
+    Optional<UserResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(USER_RESPONSE + "WHERE u.username = :username")
+    Optional<UserResponse> findResponseByUsername(@Param("username") String username);
+    
+    @Query(USER_RESPONSE + "ORDER BY u.id")
+    Slice<UserResponse> findAllResponses(Pageable pageable);
+    
+    @Query(USER_RESPONSE + "ORDER BY u.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<UserResponse> streamAllResponses();
+    
+    @Query("SELECT new com.example.socialmedia.dto.UserSummary(u.id, u.username, u.profilePicture) " +
+            "FROM User u WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.example.socialmedia.dto.UserSummary(t.id, t.username, t.profilePicture) " +
+            "FROM User u JOIN u.subscriptions t WHERE u.id = :userId ORDER BY t.id")
+    Slice<UserSummary> findSubscriptionSummaries(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT new com.example.socialmedia.dto.UserSummary(s.id, s.username, s.profilePicture) " +
+            "FROM User u JOIN u.subscribers s WHERE u.id = :userId ORDER BY s.id")
+    Slice<UserSummary> findSubscriberSummaries(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT s.id FROM User u JOIN u.subscribers s WHERE u.id = :userId")
+    List<Long> findSubscriberIds(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT u.id FROM User u JOIN u.subscriptions t WHERE t.id = :targetId AND u.id IN :candidateIds")
+    List<Long> findSubscriberIdsAmong(@Param("targetId") Long targetId,
+                                      @Param("candidateIds") Collection<Long> candidateIds);
+    
+    @Query("SELECT t.id FROM User u JOIN u.subscriptions t " +
+            "WHERE u.id = :userId AND t.followerCount >= :minSubscribers")
+    List<Long> findSubscriptionIdsWithMinSubscribers(@Param("userId") Long userId,
+                                                     @Param("minSubscribers") long minSubscribers);
 }
\ No newline at end of file
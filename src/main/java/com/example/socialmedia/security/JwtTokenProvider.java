@@ -1,60 +1,169 @@
 package com.example.socialmedia.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration}")
     private int jwtExpirationInMs;
 
+    @Value("${app.jwt.roles-in-token:false}")
+    private boolean rolesInToken;
+
+    @Value("${app.jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Key signingKey;
+
+    private JwtParser parser;
+
+    // Keyed by the SHA-256 digest of the token, so live credentials are not kept on the heap
+    private Cache<ByteBuffer, Claims> verifiedTokens;
+
+    private Timer verified;
+
+    private Timer rejected;
+
+    @PostConstruct
+    public void init() {
+        // Same key material the String overloads of jjwt derive, so existing tokens stay valid
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        // Configured once here and only read afterwards, so it is safe to share between threads
+        parser = Jwts.parser().setSigningKey(signingKey);
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer digest, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verified-tokens");
+        // Only full verifications are timed; cache hits show up in the cache metrics above
+        verified = Timer.builder("jwt.verification").tag("outcome", "valid").register(meterRegistry);
+        rejected = Timer.builder("jwt.verification").tag("outcome", "invalid").register(meterRegistry);
+    }
+
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
         
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder();
+        if (rolesInToken) {
+            builder.claim(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.joining(",")));
+        }
+        
+        return builder
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(SignatureAlgorithm.HS512, signingKey)
                 .compact();
     }
 
-    public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+    /**
+     * Verifies the token once and returns its claims, or {@code null} if it is invalid or
+     * expired. Tokens that verified before are served from a cache until they expire, so a
+     * client reusing its bearer token skips the parse and the HMAC.
+     */
+    public Claims parseAndValidate(String token) {
+        if (token == null) {
+            return null;
+        }
+        ByteBuffer digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verified.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(digest, claims);
+            }
+            return claims;
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Invalid signature, malformed, expired, unsupported or empty token
+            rejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
     }
 
-    public boolean validateToken(String authToken) {
+    private static ByteBuffer digest(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
-        } catch (SignatureException ex) {
-            // Invalid JWT signature
-        } catch (MalformedJwtException ex) {
-            // Invalid JWT token
-        } catch (ExpiredJwtException ex) {
-            // Expired JWT token
-        } catch (UnsupportedJwtException ex) {
-            // Unsupported JWT token
-        } catch (IllegalArgumentException ex) {
-            // JWT claims string is empty
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Returns the roles carried by the token, or {@code null} when roles-in-token mode is off
+     * or the token predates it and the principal has to be loaded.
+     */
+    public List<GrantedAuthority> getAuthoritiesFromClaims(Claims claims) {
+        String roles = claims.get(ROLES_CLAIM, String.class);
+        if (!rolesInToken || roles == null) {
+            return null;
         }
-        return false;
+        return Arrays.stream(roles.split(","))
+                .filter(role -> !role.isEmpty())
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.example.socialmedia.security;
+
+import com.example.socialmedia.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool that runs BCrypt hashing and verification off the servlet threads. The queue
+ * is bounded: once it is full new work is rejected with a 503 and a {@code Retry-After}
+ * hint instead of piling up, so a sign-up burst cannot starve the rest of the API.
+ * <p>
+ * Sign-in runs the whole {@code AuthenticationManager} call here, so each task also does one
+ * indexed user lookup. At cost 10 a hash takes tens of milliseconds against about a
+ * millisecond for the lookup, so one thread per core stays the right default; raise
+ * {@code app.security.hashing.threads} if the database is slow or remote. Sign-up hands its
+ * insert back to the application task executor.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    @Value("${app.security.hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.security.hashing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.security.hashing.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    private Counter rejections;
+
+    @PostConstruct
+    public void init() {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+        rejections = meterRegistry.counter("password.hashing.rejected");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool, or throws {@link ServiceUnavailableException}
+     * straight away when the pool and its queue are full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException ex) {
+            rejections.increment();
+            throw new ServiceUnavailableException("Too many authentication requests in progress, please retry",
+                    retryAfterSeconds);
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.example.socialmedia.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs after {@link JwtAuthenticationFilter} so authenticated callers are limited by
+ * username and anonymous ones by address. Rejected requests get {@code 429} with
+ * {@code Retry-After} before reaching a controller.
+ * <p>
+ * Not a bean, so the servlet container does not register it a second time outside the
+ * security chain.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication != null ? authentication.getName() : null;
+        String path = request.getServletPath() + (request.getPathInfo() != null ? request.getPathInfo() : "");
+
+        long retryAfterSeconds = rateLimiter.tryAcquire(request.getMethod(), path, username, request.getRemoteAddr());
+        if (retryAfterSeconds > 0) {
+            reject(response, retryAfterSeconds);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        // Same shape as the error bodies written by GlobalExceptionHandler
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", new Date());
+        body.put("message", "Too many requests, please retry in " + retryAfterSeconds + " seconds");
+        body.put("details", "Too many requests");
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
\ No newline at end of file
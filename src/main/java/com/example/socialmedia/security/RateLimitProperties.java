@@ -0,0 +1,52 @@
+package com.example.socialmedia.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate-limit policies from {@code app.rate-limit.policies.<name>.*}. A request is checked
+ * against the first policy whose method and path patterns match; requests matching none
+ * are not limited.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Buckets kept in memory; the least recently used ones are dropped beyond this
+    private long maxKeys = 100000;
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    public enum Key {
+        // The authenticated username, or the client address for anonymous requests
+        USER,
+        IP
+    }
+
+    @Data
+    public static class Policy {
+
+        // HTTP method to match, or every method when empty
+        private String method;
+
+        // Ant-style patterns, e.g. /api/posts/*/like/*
+        private List<String> paths = new ArrayList<>();
+
+        private Key key = Key.USER;
+
+        // Requests allowed in a burst, refilled evenly over the period
+        private int capacity = 60;
+
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
\ No newline at end of file
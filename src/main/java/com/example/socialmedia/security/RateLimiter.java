@@ -0,0 +1,144 @@
+package com.example.socialmedia.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for the policies in {@link RateLimitProperties}, one per policy and caller.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again
+ * (the generic cell rate algorithm). Taking a token is one compare-and-set, so callers never
+ * block each other. The result is the same as a bucket of {@code capacity} tokens refilled
+ * evenly over {@code period}. Buckets live in a bounded Caffeine cache and expire once idle
+ * for a full period, at which point they would be full anyway.
+ */
+@Component
+public class RateLimiter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private List<CompiledPolicy> policies;
+
+    private Cache<String, AtomicLong> buckets;
+
+    @PostConstruct
+    public void init() {
+        policies = new ArrayList<>();
+        Duration longest = Duration.ofSeconds(1);
+        for (Map.Entry<String, RateLimitProperties.Policy> entry : properties.getPolicies().entrySet()) {
+            RateLimitProperties.Policy policy = entry.getValue();
+            if (policy.getCapacity() <= 0 || policy.getPaths().isEmpty()) {
+                throw new IllegalStateException("Rate limit policy '" + entry.getKey() + "' needs paths and a positive capacity");
+            }
+            policies.add(new CompiledPolicy(entry.getKey(), policy,
+                    meterRegistry.counter("rate.limit.rejected", "policy", entry.getKey())));
+            if (policy.getPeriod().compareTo(longest) > 0) {
+                longest = policy.getPeriod();
+            }
+        }
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(longest)
+                .build();
+        Gauge.builder("rate.limit.keys", buckets, cache -> cache.estimatedSize()).register(meterRegistry);
+    }
+
+    /**
+     * Takes a token for the request, returning {@code 0} when it may proceed or the number of
+     * seconds until the caller's next token otherwise.
+     *
+     * @param username the authenticated caller, or {@code null} for anonymous requests
+     */
+    public long tryAcquire(String method, String path, String username, String clientAddress) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        CompiledPolicy policy = match(method, path);
+        if (policy == null) {
+            return 0;
+        }
+
+        String caller = policy.settings.getKey() == RateLimitProperties.Key.USER && username != null
+                ? "user:" + username
+                : "ip:" + clientAddress;
+        AtomicLong bucket = buckets.get(policy.name + '|' + caller, key -> new AtomicLong(Long.MIN_VALUE));
+        long waitNanos = take(bucket, System.nanoTime(), policy.interval, policy.tolerance);
+        if (waitNanos == 0) {
+            return 0;
+        }
+        policy.rejected.increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private CompiledPolicy match(String method, String path) {
+        for (CompiledPolicy policy : policies) {
+            String policyMethod = policy.settings.getMethod();
+            if (StringUtils.hasText(policyMethod) && !policyMethod.equalsIgnoreCase(method)) {
+                continue;
+            }
+            for (String pattern : policy.settings.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return policy;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One GCRA step: the bucket holds the theoretical arrival time of the next request. A
+     * request is allowed when that time is at most {@code tolerance} ahead of now, and then
+     * pushes it back by one {@code interval}. Returns the nanoseconds to wait, or 0.
+     */
+    static long take(AtomicLong bucket, long now, long interval, long tolerance) {
+        while (true) {
+            long current = bucket.get();
+            long start = Math.max(current, now);
+            if (start - now > tolerance) {
+                return start - tolerance - now;
+            }
+            if (bucket.compareAndSet(current, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    private static final class CompiledPolicy {
+
+        private final String name;
+        private final RateLimitProperties.Policy settings;
+        private final Counter rejected;
+        // Time to refill one token, and how far ahead the bucket may run: capacity - 1 tokens
+        private final long interval;
+        private final long tolerance;
+
+        private CompiledPolicy(String name, RateLimitProperties.Policy settings, Counter rejected) {
+            this.name = name;
+            this.settings = settings;
+            this.rejected = rejected;
+            this.interval = Math.max(1, settings.getPeriod().toNanos() / settings.getCapacity());
+            this.tolerance = interval * (settings.getCapacity() - 1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.socialmedia.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Authenticated user that also carries the id and email, so sign-in can answer without
+ * loading the user a second time.
+ */
+public class UserPrincipal extends User {
+
+    private final Long id;
+
+    private final String email;
+
+    public UserPrincipal(Long id, String username, String email, String password,
+                         Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+        this.email = email;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
\ No newline at end of file
@@ -1,17 +1,32 @@
 package com.example.socialmedia.service;
 
+import com.example.socialmedia.dto.CommentResponse;
+import com.example.socialmedia.dto.CursorPage;
+import com.example.socialmedia.dto.PageCursor;
+import com.example.socialmedia.event.CommentCreatedEvent;
 import com.example.socialmedia.exception.ResourceNotFoundException;
 import com.example.socialmedia.model.Comment;
 import com.example.socialmedia.model.Post;
 import com.example.socialmedia.model.User;
 import com.example.socialmedia.repository.CommentRepository;
+import com.example.socialmedia.repository.LikeRepository;
 import com.example.socialmedia.repository.PostRepository;
 import com.example.socialmedia.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class CommentService {
@@ -25,8 +40,28 @@ public class CommentService {
     @Autowired
     private UserRepository userRepository;
     
-    public List<Comment> getAllComments() {
-        return commentRepository.findAll();
+    @Autowired
+    private LikeRepository likeRepository;
+    
+    @Autowired
+    private NdjsonWriter ndjsonWriter;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.comments.max-page-size:100}")
+    private int maxCommentPageSize;
+    
+    public Slice<CommentResponse> getAllComments(Pageable pageable) {
+        // Ordering is fixed by the query; only the page window is taken from the request
+        return commentRepository.findAllResponses(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+    
+    @Transactional(readOnly = true)
+    public long exportComments(OutputStream out) throws IOException {
+        try (Stream<CommentResponse> comments = commentRepository.streamAllResponses()) {
+            return ndjsonWriter.write(comments, out);
+        }
     }
     
     public Comment getCommentById(Long id) {
@@ -34,14 +69,33 @@ public class CommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found with id: " + id));
     }
     
-    public List<Comment> getCommentsByPost(Long postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + postId));
-        return commentRepository.findByPostOrderByCreatedAtDesc(post);
+    public CommentResponse getCommentResponse(Long id) {
+        return commentRepository.findResponseById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Comment not found with id: " + id));
+    }
+    
+    public CursorPage<CommentResponse> getCommentsByPost(Long postId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, maxCommentPageSize));
+        PageCursor after = StringUtils.hasText(cursor) ? PageCursor.decode(cursor) : null;
+        
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<CommentResponse> comments = after != null
+                ? commentRepository.findPageByPostIdBefore(postId, after.getCreatedAt(), after.getId(), window)
+                : commentRepository.findPageByPostId(postId, window);
+        
+        // No row at all means no post; a lone row without a comment id is an empty page
+        if (comments.isEmpty()) {
+            throw new ResourceNotFoundException("Post not found with id: " + postId);
+        }
+        if (comments.get(0).getId() == null) {
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+        
+        return CursorPage.of(comments, limit, comment -> new PageCursor(comment.getCreatedAt(), comment.getId()));
     }
     
     @Transactional
-    public Comment createComment(Comment comment, Long postId, Long userId) {
+    public CommentResponse createComment(Comment comment, Long postId, Long userId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + postId));
         
@@ -50,16 +104,19 @@ public class CommentService {
         
         comment.setPost(post);
         comment.setUser(user);
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        eventPublisher.publishEvent(new CommentCreatedEvent(savedComment.getId(), postId, userId));
+        return getCommentResponse(savedComment.getId());
     }
     
     @Transactional
-    public Comment updateComment(Long id, Comment commentDetails) {
+    public CommentResponse updateComment(Long id, Comment commentDetails) {
         Comment comment = getCommentById(id);
         
         comment.setContent(commentDetails.getContent());
         
-        return commentRepository.save(comment);
+        commentRepository.save(comment);
+        return getCommentResponse(id);
     }
     
     @Transactional
@@ -70,23 +127,22 @@ public class CommentService {
     
     @Transactional
     public boolean likeComment(Long commentId, Long userId) {
-        Comment comment = getCommentById(commentId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
-        boolean added = comment.addLike(user);
-        commentRepository.save(comment);
-        return added;
+        requireCommentAndUser(commentId, userId);
+        return likeRepository.likeComment(commentId, userId);
     }
     
     @Transactional
     public boolean unlikeComment(Long commentId, Long userId) {
-        Comment comment = getCommentById(commentId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
-        boolean removed = comment.removeLike(user);
-        commentRepository.save(comment);
-        return removed;
+        requireCommentAndUser(commentId, userId);
+        return likeRepository.unlikeComment(commentId, userId);
+    }
+    
+    private void requireCommentAndUser(Long commentId, Long userId) {
+        if (!commentRepository.existsById(commentId)) {
+            throw new ResourceNotFoundException("Comment not found with id: " + commentId);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
     }
 }
\ No newline at end of file
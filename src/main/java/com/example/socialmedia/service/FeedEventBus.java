@@ -0,0 +1,366 @@
+package com.example.socialmedia.service;
+
+import com.example.socialmedia.dto.PostResponse;
+import com.example.socialmedia.event.PostCreatedEvent;
+import com.example.socialmedia.exception.ServiceUnavailableException;
+import com.example.socialmedia.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process pub/sub for live feeds. Each open stream is an async {@link SseEmitter}, so an
+ * idle connection holds no request thread, only its socket and a small buffer.
+ * <p>
+ * A new post is serialized once after its transaction commits. It is then offered to the
+ * buffer of every connected follower and of the author. Each buffer holds at most
+ * {@code app.feed.stream.buffer-size} posts; when a client reads too slowly, the oldest post
+ * is dropped and the client is sent a {@code gap} event so it can refetch the REST feed.
+ * Buffers are drained on a small delivery pool, at most one drain per connection at a time;
+ * publishing only appends to buffers and schedules drains.
+ * <p>
+ * Sends are blocking servlet writes, though, so a client that stops reading holds a delivery
+ * thread until the write fails. A send running longer than
+ * {@code app.feed.stream.send-timeout-ms} gets its stream dropped by a watchdog, so no more
+ * work is queued for it, and the write itself gives up after Tomcat's
+ * {@code server.tomcat.connection-timeout}. Until then other clients wait behind the stalled
+ * ones: with {@code delivery-threads} stalled sockets at once, delivery pauses for up to that
+ * timeout.
+ */
+@Service
+public class FeedEventBus {
+    
+    private static final int FOLLOWER_CHECK_BATCH = 1000;
+    
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.feed.stream.max-connections:50000}")
+    private int maxConnections;
+    
+    @Value("${app.feed.stream.buffer-size:64}")
+    private int bufferSize;
+    
+    @Value("${app.feed.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    @Value("${app.feed.stream.delivery-threads:4}")
+    private int deliveryThreads;
+    
+    @Value("${app.feed.stream.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+    
+    @Value("${app.feed.stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+    
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger connections = new AtomicInteger();
+    
+    private ExecutorService delivery;
+    
+    private Counter dropped;
+    
+    private Counter stalled;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger sequence = new AtomicInteger();
+        delivery = Executors.newFixedThreadPool(deliveryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "feed-stream-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("feed.stream.connections", connections, AtomicInteger::get).register(meterRegistry);
+        dropped = meterRegistry.counter("feed.stream.dropped");
+        stalled = meterRegistry.counter("feed.stream.stalled");
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        delivery.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+    
+    /**
+     * Opens a live stream of new posts for the user's feed. Rejected with a 503 once the node
+     * holds {@code app.feed.stream.max-connections} streams.
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open feed streams, please retry", retryAfterSeconds);
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+        // Added inside compute so it cannot race with the last stream of the user being removed
+        subscribers.compute(userId, (id, set) -> {
+            Set<Subscriber> result = set != null ? set : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+        return emitter;
+    }
+    
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        if (subscribers.isEmpty() || event.getPost() == null) {
+            return;
+        }
+        
+        FeedEvent feedEvent = new FeedEvent(event.getPostId(), event.getPost());
+        Long authorId = event.getAuthorId();
+        publish(authorId, feedEvent);
+        if (socialGraphIndex.isReady()) {
+            // Walk whichever side is smaller: the author's followers or the connected users
+            if (socialGraphIndex.getFollowerCount(authorId) <= subscribers.size()) {
+                for (long followerId : socialGraphIndex.getFollowers(authorId)) {
+                    publish(followerId, feedEvent);
+                }
+            } else {
+                for (Long userId : subscribers.keySet()) {
+                    if (socialGraphIndex.isFollowing(userId, authorId)) {
+                        publish(userId, feedEvent);
+                    }
+                }
+            }
+            return;
+        }
+        
+        // Without the index, check only the connected users, in bounded IN batches, rather than
+        // loading every follower of the author
+        List<Long> connected = new ArrayList<>(subscribers.keySet());
+        for (int from = 0; from < connected.size(); from += FOLLOWER_CHECK_BATCH) {
+            List<Long> candidates = connected.subList(from, Math.min(from + FOLLOWER_CHECK_BATCH, connected.size()));
+            for (Long followerId : userRepository.findSubscriberIdsAmong(authorId, candidates)) {
+                publish(followerId, feedEvent);
+            }
+        }
+    }
+    
+    /**
+     * Keeps idle streams alive through proxies and notices clients that went away without
+     * closing the connection.
+     */
+    @Scheduled(fixedDelayString = "${app.feed.stream.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> {
+            subscriber.requestPing();
+            schedule(subscriber);
+        }));
+    }
+    
+    /**
+     * Drops streams whose current send has been blocked past the send timeout. The emitter is
+     * completed by the delivery thread once its write fails; completing it here would wait on
+     * the emitter's lock, which the blocked send holds.
+     */
+    @Scheduled(fixedDelayString = "${app.feed.stream.watchdog-interval-ms:1000}")
+    public void expireStalled() {
+        long now = System.nanoTime();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        subscribers.values().forEach(set -> set.forEach(subscriber -> {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > timeout) {
+                stalled.increment();
+                unsubscribe(subscriber);
+            }
+        }));
+    }
+    
+    private void publish(Long userId, FeedEvent feedEvent) {
+        Set<Subscriber> targets = subscribers.get(userId);
+        if (targets == null) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            if (!subscriber.offer(feedEvent)) {
+                dropped.increment();
+            }
+            schedule(subscriber);
+        }
+    }
+    
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            delivery.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        try {
+            long gap = subscriber.takeDropped();
+            if (gap > 0) {
+                send(subscriber, SseEmitter.event().name("gap").data(gap));
+            }
+            FeedEvent feedEvent;
+            while ((feedEvent = subscriber.poll()) != null) {
+                send(subscriber, SseEmitter.event()
+                        .id(String.valueOf(feedEvent.postId))
+                        .name("post")
+                        .data(feedEvent.json(objectMapper), MediaType.APPLICATION_JSON));
+            }
+            if (subscriber.takePing()) {
+                send(subscriber, SseEmitter.event().comment("ping"));
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // Client disconnected or the emitter already completed
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(ex);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // Catch offers that arrived after the last poll but before the flag was cleared
+        if (subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+    
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        // Dropped by the watchdog while this or an earlier send was blocked
+        if (subscriber.closed.get()) {
+            throw new IllegalStateException("Feed stream expired");
+        }
+        subscriber.sendStartedAt = System.nanoTime();
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendStartedAt = 0;
+        }
+        if (subscriber.closed.get()) {
+            throw new IllegalStateException("Feed stream expired");
+        }
+    }
+    
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connections.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+    
+    /**
+     * A post as it goes out on the wire; serialized on first delivery and shared by every
+     * recipient.
+     */
+    private static final class FeedEvent {
+        
+        private final long postId;
+        private final PostResponse post;
+        private volatile String json;
+        
+        private FeedEvent(long postId, PostResponse post) {
+            this.postId = postId;
+            this.post = post;
+        }
+        
+        String json(ObjectMapper objectMapper) throws JsonProcessingException {
+            String result = json;
+            if (result == null) {
+                result = objectMapper.writeValueAsString(post);
+                json = result;
+            }
+            return result;
+        }
+    }
+    
+    private static final class Subscriber {
+        
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final int capacity;
+        private final ArrayDeque<FeedEvent> buffer = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private long dropped;
+        private boolean ping;
+        // System.nanoTime() when the send in progress started, 0 when none is
+        private volatile long sendStartedAt;
+        
+        private Subscriber(Long userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.capacity = capacity;
+        }
+        
+        /**
+         * Appends the event, evicting the oldest one when the buffer is full. Returns
+         * {@code false} if something was dropped.
+         */
+        synchronized boolean offer(FeedEvent feedEvent) {
+            boolean full = buffer.size() >= capacity;
+            if (full) {
+                buffer.pollFirst();
+                dropped++;
+            }
+            buffer.addLast(feedEvent);
+            return !full;
+        }
+        
+        synchronized FeedEvent poll() {
+            return buffer.pollFirst();
+        }
+        
+        synchronized long takeDropped() {
+            long result = dropped;
+            dropped = 0;
+            return result;
+        }
+        
+        synchronized void requestPing() {
+            ping = true;
+        }
+        
+        synchronized boolean takePing() {
+            boolean result = ping;
+            ping = false;
+            return result;
+        }
+        
+        synchronized boolean hasPending() {
+            return !buffer.isEmpty() || dropped > 0 || ping;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.socialmedia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream as newline-delimited JSON, one row at a time, so exports run in constant
+ * memory regardless of table size.
+ */
+@Component
+public class NdjsonWriter {
+    
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+    
+    private static final int FLUSH_EVERY = 500;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    public <T> long write(Stream<T> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer();
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            out.write(writer.writeValueAsBytes(iterator.next()));
+            out.write('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
\ No newline at end of file
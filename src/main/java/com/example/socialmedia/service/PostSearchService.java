@@ -0,0 +1,354 @@
+package com.example.socialmedia.service;
+
+import com.example.socialmedia.dto.PostResponse;
+import com.example.socialmedia.dto.PostSearchHit;
+import com.example.socialmedia.event.PostCreatedEvent;
+import com.example.socialmedia.event.PostDeletedEvent;
+import com.example.socialmedia.event.PostUpdatedEvent;
+import com.example.socialmedia.event.UserDeletedEvent;
+import com.example.socialmedia.exception.BadRequestException;
+import com.example.socialmedia.exception.ServiceUnavailableException;
+import com.example.socialmedia.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over post titles and bodies, backed by an on-disk Lucene index under
+ * {@code app.search.index-path}. Everything a hit needs is stored in the index, so searches
+ * never touch the database.
+ * <p>
+ * Post changes are queued once their transaction commits and applied by a single indexing
+ * thread. New searchers are opened every {@code refresh-interval-ms}, so changes show up
+ * within about a second. A full reindex streams the posts table through the same thread, so
+ * it stays ordered with live updates. Documents are stamped with the generation that wrote
+ * them, and the reindex then deletes everything older. Searches keep working throughout,
+ * and posts deleted while the reindex ran do not linger.
+ */
+@Service
+public class PostSearchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchService.class);
+    
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String CONTENT = "content";
+    private static final String AUTHOR_ID = "authorId";
+    private static final String AUTHOR_USERNAME = "authorUsername";
+    private static final String CREATED_AT = "createdAt";
+    private static final String GENERATION = "generation";
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.search.index-path:data/search-index}")
+    private String indexPath;
+    
+    @Value("${app.search.queue-capacity:100000}")
+    private int queueCapacity;
+    
+    @Value("${app.search.max-page-size:100}")
+    private int maxPageSize;
+    
+    @Value("${app.search.max-results:1000}")
+    private int maxResults;
+    
+    @Value("${app.search.title-boost:2.0}")
+    private float titleBoost;
+    
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    
+    // Wall-clock based so documents written before a restart count as older than the next reindex
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+    
+    private Directory directory;
+    
+    private IndexWriter writer;
+    
+    private SearcherManager searcherManager;
+    
+    private BlockingQueue<IndexOperation> queue;
+    
+    private Thread indexer;
+    
+    private volatile boolean running = true;
+    
+    private Counter dropped;
+    
+    @FunctionalInterface
+    private interface IndexOperation {
+        void apply() throws IOException;
+    }
+    
+    @PostConstruct
+    public void init() throws IOException {
+        directory = FSDirectory.open(Paths.get(indexPath));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        Gauge.builder("search.index.queue", queue, BlockingQueue::size).register(meterRegistry);
+        dropped = meterRegistry.counter("search.index.dropped");
+        
+        indexer = new Thread(this::runIndexer, "post-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+    
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        // Not interrupted: Lucene closes its files when a thread is interrupted mid-write
+        running = false;
+        indexer.join(TimeUnit.SECONDS.toMillis(30));
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+    
+    /**
+     * Builds the index from scratch on first start, e.g. after the index directory was removed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reindexIfEmpty() {
+        if (writer.getDocStats().numDocs == 0) {
+            requestReindex();
+        }
+    }
+    
+    /**
+     * Queues a full rebuild from the posts table; searches keep answering from the current
+     * index until it completes.
+     */
+    public void requestReindex() {
+        if (!queue.offer(this::reindex)) {
+            throw new ServiceUnavailableException("Search indexing queue is full, please retry", 60);
+        }
+    }
+    
+    public Slice<PostSearchHit> search(String text, Pageable pageable) {
+        if (!StringUtils.hasText(text)) {
+            throw new BadRequestException("Search query must not be blank");
+        }
+        int size = Math.max(1, Math.min(pageable.getPageSize(), maxPageSize));
+        // In long so a huge page number cannot overflow past the check
+        long end = ((long) pageable.getPageNumber() + 1) * size;
+        if (end > maxResults) {
+            throw new BadRequestException("Search results are limited to the first " + maxResults + " hits");
+        }
+        int offset = (int) end - size;
+        PageRequest page = PageRequest.of(pageable.getPageNumber(), size);
+        
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of(TITLE, titleBoost, CONTENT, 1.0f));
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query query = parser.parse(text);
+        if (query == null) {
+            // Nothing left after analysis, e.g. only stop words
+            return new SliceImpl<>(Collections.emptyList(), page, false);
+        }
+        
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, offset + size + 1);
+                StoredFields storedFields = searcher.storedFields();
+                List<PostSearchHit> hits = new ArrayList<>(size);
+                for (int i = offset; i < Math.min(top.scoreDocs.length, offset + size); i++) {
+                    ScoreDoc scoreDoc = top.scoreDocs[i];
+                    hits.add(toHit(storedFields.document(scoreDoc.doc), scoreDoc.score));
+                }
+                return new SliceImpl<>(hits, page, top.scoreDocs.length > offset + size);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not search posts", ex);
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        if (event.getPost() != null) {
+            index(event.getPost());
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onPostUpdated(PostUpdatedEvent event) {
+        index(event.getPost());
+    }
+    
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        enqueue(() -> writer.deleteDocuments(new Term(ID, String.valueOf(event.getPostId()))));
+    }
+    
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        enqueue(() -> writer.deleteDocuments(new Term(AUTHOR_ID, String.valueOf(event.getUserId()))));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:1000}")
+    public void refresh() throws IOException {
+        searcherManager.maybeRefresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.search.commit-interval-ms:60000}")
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+    
+    private void index(PostResponse post) {
+        enqueue(() -> writer.updateDocument(new Term(ID, String.valueOf(post.getId())), toDocument(post)));
+    }
+    
+    private void enqueue(IndexOperation operation) {
+        if (!queue.offer(operation)) {
+            dropped.increment();
+            logger.warn("Search indexing queue is full; the change will be picked up by the next reindex");
+        }
+    }
+    
+    private void runIndexer() {
+        // Drains what is left after shutdown starts so the final commit includes it
+        while (running || !queue.isEmpty()) {
+            IndexOperation operation;
+            try {
+                operation = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (operation == null) {
+                continue;
+            }
+            try {
+                operation.apply();
+            } catch (IOException | RuntimeException ex) {
+                logger.warn("Could not update the post search index", ex);
+            }
+        }
+    }
+    
+    private void reindex() throws IOException {
+        long started = System.nanoTime();
+        long current = generation.updateAndGet(previous -> Math.max(previous + 1, System.currentTimeMillis()));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        long count = transaction.execute(status -> {
+            long indexed = 0;
+            try (Stream<PostResponse> posts = postRepository.streamAllResponses()) {
+                for (PostResponse post : (Iterable<PostResponse>) posts::iterator) {
+                    if (!running) {
+                        break;
+                    }
+                    writer.updateDocument(new Term(ID, String.valueOf(post.getId())), toDocument(post));
+                    indexed++;
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return indexed;
+        });
+        if (!running) {
+            logger.info("Post reindex interrupted by shutdown after {} posts", count);
+            return;
+        }
+        
+        writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, current - 1));
+        writer.commit();
+        searcherManager.maybeRefresh();
+        logger.info("Reindexed {} posts in {} ms", count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+    
+    private Document toDocument(PostResponse post) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(post.getId()), Field.Store.YES));
+        document.add(new TextField(TITLE, post.getTitle() != null ? post.getTitle() : "", Field.Store.YES));
+        document.add(new TextField(CONTENT, post.getContent() != null ? post.getContent() : "", Field.Store.YES));
+        if (post.getAuthor() != null) {
+            document.add(new StringField(AUTHOR_ID, String.valueOf(post.getAuthor().getId()), Field.Store.YES));
+            if (post.getAuthor().getUsername() != null) {
+                document.add(new StoredField(AUTHOR_USERNAME, post.getAuthor().getUsername()));
+            }
+        }
+        if (post.getCreatedAt() != null) {
+            document.add(new StoredField(CREATED_AT, post.getCreatedAt().toString()));
+        }
+        document.add(new LongPoint(GENERATION, generation.get()));
+        return document;
+    }
+    
+    private static PostSearchHit toHit(Document document, float score) {
+        String authorId = document.get(AUTHOR_ID);
+        String createdAt = document.get(CREATED_AT);
+        return new PostSearchHit(
+                Long.valueOf(document.get(ID)),
+                document.get(TITLE),
+                document.get(CONTENT),
+                authorId != null ? Long.valueOf(authorId) : null,
+                document.get(AUTHOR_USERNAME),
+                createdAt != null ? LocalDateTime.parse(createdAt) : null,
+                score);
+    }
+}
\ No newline at end of file
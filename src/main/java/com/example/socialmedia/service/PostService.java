@@ -1,16 +1,37 @@
 package com.example.socialmedia.service;
 
+import com.example.socialmedia.dto.CursorPage;
+import com.example.socialmedia.dto.PageCursor;
+import com.example.socialmedia.dto.PostResponse;
+import com.example.socialmedia.event.PostCreatedEvent;
+import com.example.socialmedia.event.PostDeletedEvent;
+import com.example.socialmedia.event.PostLikeChangedEvent;
+import com.example.socialmedia.event.PostUpdatedEvent;
 import com.example.socialmedia.exception.ResourceNotFoundException;
 import com.example.socialmedia.model.Post;
 import com.example.socialmedia.model.User;
+import com.example.socialmedia.repository.LikeRepository;
 import com.example.socialmedia.repository.PostRepository;
 import com.example.socialmedia.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PostService {
@@ -21,8 +42,37 @@ public class PostService {
     @Autowired
     private UserRepository userRepository;
     
-    public List<Post> getAllPosts() {
-        return postRepository.findAll();
+    @Autowired
+    private LikeRepository likeRepository;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
+    @Autowired
+    private ViewCountAggregator viewCountAggregator;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private NdjsonWriter ndjsonWriter;
+    
+    @Value("${app.feed.max-page-size:100}")
+    private int maxFeedPageSize;
+    
+    public Slice<PostResponse> getAllPosts(Pageable pageable) {
+        // Ordering is fixed by the query; only the page window is taken from the request
+        return postRepository.findAllResponses(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+    
+    @Transactional(readOnly = true)
+    public long exportPosts(OutputStream out) throws IOException {
+        try (Stream<PostResponse> posts = postRepository.streamAllResponses()) {
+            return ndjsonWriter.write(posts, out);
+        }
     }
     
     public Post getPostById(Long id) {
@@ -30,73 +80,130 @@ public class PostService {
                 .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + id));
     }
     
-    public List<Post> getPostsByUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        return postRepository.findByUserOrderByCreatedAtDesc(user);
+    public PostResponse getPostResponse(Long id) {
+        return postRepository.findResponseById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + id));
     }
     
-    public List<Post> getFeedPosts(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    public List<PostResponse> getPostsByUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return postRepository.findResponsesByUserId(userId);
+    }
+    
+    public CursorPage<PostResponse> getFeedPosts(Long userId, String cursor, int size) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        
+        int limit = Math.max(1, Math.min(size, maxFeedPageSize));
+        PageCursor after = StringUtils.hasText(cursor) ? PageCursor.decode(cursor) : null;
+        
+        List<PostResponse> posts = null;
+        if (timelineService.isEnabled()) {
+            List<Long> postIds = timelineService.readFeed(userId, after, limit + 1);
+            if (postIds != null) {
+                posts = findAllInOrder(postIds);
+                // A post deleted since it was pushed leaves the page short; prune it from the
+                // timeline and answer this request from the database instead
+                if (posts.size() < postIds.size()) {
+                    Set<Long> found = posts.stream().map(PostResponse::getId).collect(Collectors.toSet());
+                    timelineService.discard(userId, postIds.stream()
+                            .filter(id -> !found.contains(id))
+                            .collect(Collectors.toList()));
+                    posts = null;
+                }
+            }
+        }
         
-        List<User> subscriptions = new ArrayList<>(user.getSubscriptions());
-        subscriptions.add(user); // Include user's own posts
+        // The user's own posts are part of the feed alongside their subscriptions
+        if (posts == null) {
+            Pageable window = PageRequest.of(0, limit + 1);
+            posts = after != null
+                    ? postRepository.findFeedBefore(userId, after.getCreatedAt(), after.getId(), window)
+                    : postRepository.findFeed(userId, window);
+        }
         
-        return postRepository.findPostsByUsersOrderByCreatedAtDesc(subscriptions);
+        return CursorPage.of(posts, limit, post -> new PageCursor(post.getCreatedAt(), post.getId()));
+    }
+    
+    private List<PostResponse> findAllInOrder(List<Long> ids) {
+        Map<Long, PostResponse> postsById = postRepository.findResponsesByIds(ids).stream()
+                .collect(Collectors.toMap(PostResponse::getId, Function.identity()));
+        return ids.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
     
     @Transactional
-    public Post createPost(Post post, Long userId) {
+    public PostResponse createPost(Post post, Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
         post.setUser(user);
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        PostResponse response = getPostResponse(savedPost.getId());
+        eventPublisher.publishEvent(new PostCreatedEvent(savedPost.getId(), userId, savedPost.getCreatedAt(), response));
+        return response;
     }
     
     @Transactional
-    public Post updatePost(Long id, Post postDetails) {
+    public PostResponse updatePost(Long id, Post postDetails) {
         Post post = getPostById(id);
         
         post.setTitle(postDetails.getTitle());
         post.setContent(postDetails.getContent());
         
-        return postRepository.save(post);
+        postRepository.save(post);
+        PostResponse response = getPostResponse(id);
+        eventPublisher.publishEvent(new PostUpdatedEvent(response));
+        return response;
     }
     
     @Transactional
     public void deletePost(Long id) {
         Post post = getPostById(id);
         postRepository.delete(post);
+        eventPublisher.publishEvent(new PostDeletedEvent(id));
     }
     
-    @Transactional
     public void incrementViewCount(Long id) {
-        Post post = getPostById(id);
-        post.incrementViewCount();
-        postRepository.save(post);
+        viewCountAggregator.increment(id);
+        trendingService.recordView(id);
+    }
+    
+    public List<PostResponse> getTrendingPosts(int limit) {
+        return trendingService.getTrending(limit);
     }
     
     @Transactional
     public boolean likePost(Long postId, Long userId) {
-        Post post = getPostById(postId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
-        boolean added = post.addLike(user);
-        postRepository.save(post);
-        return added;
+        requirePostAndUser(postId, userId);
+        boolean liked = likeRepository.likePost(postId, userId);
+        if (liked) {
+            eventPublisher.publishEvent(new PostLikeChangedEvent(postId, userId, true));
+        }
+        return liked;
     }
     
     @Transactional
     public boolean unlikePost(Long postId, Long userId) {
-        Post post = getPostById(postId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
-        boolean removed = post.removeLike(user);
-        postRepository.save(post);
-        return removed;
+        requirePostAndUser(postId, userId);
+        boolean unliked = likeRepository.unlikePost(postId, userId);
+        if (unliked) {
+            eventPublisher.publishEvent(new PostLikeChangedEvent(postId, userId, false));
+        }
+        return unliked;
+    }
+    
+    private void requirePostAndUser(Long postId, Long userId) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post not found with id: " + postId);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,283 @@
+package com.example.socialmedia.service;
+
+import com.example.socialmedia.event.SubscriptionChangedEvent;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * "People you may know": ranks users by how many of the caller's followees they also
+ * follow, using the {@link SocialGraphIndex} instead of entity collections.
+ * <p>
+ * The two-hop neighbourhood is counted by merging the followees' sorted follower arrays.
+ * Followees are visited from the least followed up, since niche accounts are the strongest
+ * signal. Accounts above {@code app.recommendations.max-followee-fanout} followers are
+ * skipped, and the scan stops after {@code app.recommendations.max-work} follower entries.
+ * Large neighbourhoods are split across a fork-join pool.
+ * <p>
+ * Results are cached per user. Entries refresh in the background after
+ * {@code refresh-seconds} and straight away when the user follows or unfollows someone;
+ * the stale ranking keeps being served in the meantime.
+ */
+@Service
+public class RecommendationService {
+    
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.recommendations.max-results:50}")
+    private int maxResults;
+    
+    @Value("${app.recommendations.max-followee-fanout:10000}")
+    private long maxFolloweeFanout;
+    
+    @Value("${app.recommendations.max-work:2000000}")
+    private long maxWork;
+    
+    @Value("${app.recommendations.parallel-threshold:50000}")
+    private long parallelThreshold;
+    
+    @Value("${app.recommendations.parallelism:0}")
+    private int parallelism;
+    
+    @Value("${app.recommendations.cache.max-size:10000}")
+    private long cacheMaxSize;
+    
+    @Value("${app.recommendations.cache.refresh-seconds:300}")
+    private long refreshSeconds;
+    
+    @Value("${app.recommendations.cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+    
+    private ForkJoinPool pool;
+    
+    private LoadingCache<Long, Ranking> rankings;
+    
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        rankings = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .executor(pool)
+                .recordStats()
+                .build(this::rank);
+        CaffeineCacheMetrics.monitor(meterRegistry, rankings, "recommendations");
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+    
+    /**
+     * Up to {@code limit} recommended user ids with their shared-followee counts, best first.
+     * Users followed since the ranking was computed are filtered out; the list is empty
+     * until the graph index has been built.
+     */
+    public List<Recommendation> recommend(Long userId, int limit) {
+        if (!socialGraphIndex.isReady()) {
+            return Collections.emptyList();
+        }
+        Ranking ranking = rankings.get(userId);
+        List<Recommendation> result = new ArrayList<>();
+        for (int i = 0; i < ranking.ids.length && result.size() < limit; i++) {
+            if (!socialGraphIndex.isFollowing(userId, ranking.ids[i])) {
+                result.add(new Recommendation(ranking.ids[i], ranking.counts[i]));
+            }
+        }
+        return result;
+    }
+    
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        if (rankings.getIfPresent(event.getSubscriberId()) != null) {
+            rankings.refresh(event.getSubscriberId());
+        }
+    }
+    
+    Ranking rank(Long userId) {
+        long[] followees = socialGraphIndex.getFollowees(userId);
+        
+        long[][] candidates = new long[followees.length][];
+        Long[] order = new Long[followees.length];
+        long[] fanout = new long[followees.length];
+        for (int i = 0; i < followees.length; i++) {
+            order[i] = (long) i;
+            fanout[i] = socialGraphIndex.getFollowerCount(followees[i]);
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> fanout[i.intValue()]));
+        
+        int lists = 0;
+        long work = 0;
+        for (Long i : order) {
+            long size = fanout[i.intValue()];
+            if (size > maxFolloweeFanout || work + size > maxWork) {
+                break;
+            }
+            candidates[lists++] = socialGraphIndex.getFollowers(followees[i.intValue()]);
+            work += size;
+        }
+        
+        CountTask task = new CountTask(candidates, 0, lists, parallelThreshold);
+        Counts counts = work >= parallelThreshold ? pool.invoke(task) : task.compute();
+        return top(counts, userId, followees);
+    }
+    
+    private Ranking top(Counts counts, Long userId, long[] followees) {
+        PriorityQueue<Integer> best = new PriorityQueue<>(
+                Comparator.<Integer>comparingInt(i -> counts.counts[i]).thenComparingLong(i -> -counts.ids[i]));
+        for (int i = 0; i < counts.ids.length; i++) {
+            long candidate = counts.ids[i];
+            if (candidate == userId || Arrays.binarySearch(followees, candidate) >= 0) {
+                continue;
+            }
+            best.add(i);
+            if (best.size() > maxResults) {
+                best.poll();
+            }
+        }
+        
+        int size = best.size();
+        long[] ids = new long[size];
+        int[] scores = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            int index = best.poll();
+            ids[i] = counts.ids[index];
+            scores[i] = counts.counts[index];
+        }
+        return new Ranking(ids, scores);
+    }
+    
+    @Getter
+    @AllArgsConstructor
+    public static final class Recommendation {
+        private final long userId;
+        private final int sharedFollowees;
+    }
+    
+    static final class Ranking {
+        
+        private final long[] ids;
+        private final int[] counts;
+        
+        Ranking(long[] ids, int[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+    }
+    
+    /**
+     * Distinct ids with the number of input lists each appeared in, sorted by id.
+     */
+    static final class Counts {
+        
+        private final long[] ids;
+        private final int[] counts;
+        
+        Counts(long[] ids, int[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+        
+        static Counts merge(Counts left, Counts right) {
+            long[] ids = new long[left.ids.length + right.ids.length];
+            int[] counts = new int[ids.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < left.ids.length || j < right.ids.length) {
+                if (j == right.ids.length || (i < left.ids.length && left.ids[i] < right.ids[j])) {
+                    ids[n] = left.ids[i];
+                    counts[n++] = left.counts[i++];
+                } else if (i == left.ids.length || right.ids[j] < left.ids[i]) {
+                    ids[n] = right.ids[j];
+                    counts[n++] = right.counts[j++];
+                } else {
+                    ids[n] = left.ids[i];
+                    counts[n++] = left.counts[i++] + right.counts[j++];
+                }
+            }
+            return new Counts(Arrays.copyOf(ids, n), Arrays.copyOf(counts, n));
+        }
+    }
+    
+    /**
+     * Counts occurrences across {@code lists[from..to)}. Ranges holding more than
+     * {@code threshold} entries are split in two and counted in parallel; leaves concatenate
+     * and sort their lists, then collapse runs of equal ids.
+     */
+    static final class CountTask extends RecursiveTask<Counts> {
+        
+        private final long[][] lists;
+        private final int from;
+        private final int to;
+        private final long threshold;
+        
+        CountTask(long[][] lists, int from, int to, long threshold) {
+            this.lists = lists;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+        
+        @Override
+        protected Counts compute() {
+            long size = 0;
+            for (int i = from; i < to; i++) {
+                size += lists[i].length;
+            }
+            if (size > threshold && to - from > 1) {
+                int middle = (from + to) >>> 1;
+                CountTask left = new CountTask(lists, from, middle, threshold);
+                left.fork();
+                Counts right = new CountTask(lists, middle, to, threshold).compute();
+                return Counts.merge(left.join(), right);
+            }
+            
+            long[] all = new long[(int) size];
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                System.arraycopy(lists[i], 0, all, n, lists[i].length);
+                n += lists[i].length;
+            }
+            Arrays.sort(all);
+            
+            long[] ids = new long[all.length];
+            int[] counts = new int[all.length];
+            int distinct = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (distinct > 0 && ids[distinct - 1] == all[i]) {
+                    counts[distinct - 1]++;
+                } else {
+                    ids[distinct] = all[i];
+                    counts[distinct++] = 1;
+                }
+            }
+            return new Counts(Arrays.copyOf(ids, distinct), Arrays.copyOf(counts, distinct));
+        }
+    }
+}
\ No newline at end of file
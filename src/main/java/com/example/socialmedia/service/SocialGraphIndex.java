@@ -0,0 +1,520 @@
+package com.example.socialmedia.service;
+
+import com.example.socialmedia.event.SubscriptionChangedEvent;
+import com.example.socialmedia.event.UserDeletedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process copy of {@code user_subscriptions} for follower and followee lookups.
+ * <p>
+ * The bulk of the graph is an immutable snapshot in compressed sparse row layout: user ids
+ * are mapped to dense indexes and each direction is one {@code int[]} of neighbours plus an
+ * offsets array, about 8 bytes per follow for both directions together. Follows committed
+ * after the snapshot was taken live in a small overlay that records the desired state of
+ * each changed edge; it is folded into a new snapshot once it grows past
+ * {@code app.graph.index.compact-threshold}.
+ * <p>
+ * All returned id arrays are sorted ascending. Until the first snapshot is built
+ * {@link #isReady()} is false and callers fall back to the database.
+ */
+@Component
+public class SocialGraphIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SocialGraphIndex.class);
+    
+    private static final String USER_IDS_SQL = "SELECT id FROM users ORDER BY id";
+    private static final String EDGES_SQL =
+            "SELECT subscriber_id, target_id FROM user_subscriptions ORDER BY subscriber_id, target_id";
+    private static final int FETCH_SIZE = 10_000;
+    private static final long[] EMPTY = new long[0];
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.graph.index.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.graph.index.compact-threshold:100000}")
+    private int compactThreshold;
+    
+    private volatile State state = new State(Snapshot.EMPTY, new Overlay());
+    private volatile boolean ready;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public long[] getFollowees(Long userId) {
+        return followees(state, userId);
+    }
+    
+    public long[] getFollowers(Long userId) {
+        State current = state;
+        return current.overlay.apply(userId, current.snapshot.followers(userId),
+                current.overlay.addedIn, current.overlay.removedIn);
+    }
+    
+    public long getFolloweeCount(Long userId) {
+        State current = state;
+        Snapshot snapshot = current.snapshot;
+        long count = snapshot.followeeCount(userId);
+        for (Long targetId : current.overlay.addedOut.getOrDefault(userId, Collections.emptySet())) {
+            count += snapshot.hasEdge(userId, targetId) ? 0 : 1;
+        }
+        for (Long targetId : current.overlay.removedOut.getOrDefault(userId, Collections.emptySet())) {
+            count -= snapshot.hasEdge(userId, targetId) ? 1 : 0;
+        }
+        return count;
+    }
+    
+    public long getFollowerCount(Long userId) {
+        State current = state;
+        Snapshot snapshot = current.snapshot;
+        long count = snapshot.followerCount(userId);
+        for (Long subscriberId : current.overlay.addedIn.getOrDefault(userId, Collections.emptySet())) {
+            count += snapshot.hasEdge(subscriberId, userId) ? 0 : 1;
+        }
+        for (Long subscriberId : current.overlay.removedIn.getOrDefault(userId, Collections.emptySet())) {
+            count -= snapshot.hasEdge(subscriberId, userId) ? 1 : 0;
+        }
+        return count;
+    }
+    
+    public boolean isFollowing(Long subscriberId, Long targetId) {
+        State current = state;
+        Set<Long> added = current.overlay.addedOut.get(subscriberId);
+        if (added != null && added.contains(targetId)) {
+            return true;
+        }
+        Set<Long> removed = current.overlay.removedOut.get(subscriberId);
+        if (removed != null && removed.contains(targetId)) {
+            return false;
+        }
+        return current.snapshot.hasEdge(subscriberId, targetId);
+    }
+    
+    public long[] getCommonFollowees(Long first, Long second) {
+        return intersect(getFollowees(first), getFollowees(second));
+    }
+    
+    /**
+     * Intersection of two sorted id arrays. When one side is much smaller its elements are
+     * binary-searched in the other instead of walking both.
+     */
+    public static long[] intersect(long[] a, long[] b) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = small == a ? b : a;
+        long[] result = new long[small.length];
+        int found = 0;
+        if (small.length * 32L < large.length) {
+            int from = 0;
+            for (long id : small) {
+                int index = Arrays.binarySearch(large, from, large.length, id);
+                if (index >= 0) {
+                    result[found++] = id;
+                    from = index + 1;
+                } else {
+                    from = -index - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < small.length && j < large.length) {
+                if (small[i] < large[j]) {
+                    i++;
+                } else if (small[i] > large[j]) {
+                    j++;
+                } else {
+                    result[found++] = small[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        Snapshot snapshot;
+        try {
+            snapshot = new TransactionTemplate(transactionManager).execute(status -> scan());
+        } catch (DataAccessException ex) {
+            logger.warn("Social graph index not built, lookups stay on the database: {}", ex.getMessage());
+            return;
+        }
+        synchronized (this) {
+            // Follows committed during the scan stay in the overlay; it records desired edge
+            // state, so applying it again on top of a snapshot that already has them is harmless
+            state = new State(snapshot, state.overlay);
+        }
+        ready = true;
+        logger.info("Social graph index built: {} users, {} follows in {} ms",
+                snapshot.nodes.length, snapshot.outTargets.length, (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            for (Long targetId : event.getTargetIds()) {
+                state.overlay.set(event.getSubscriberId(), targetId, event.isSubscribed());
+            }
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Long userId = event.getUserId();
+        synchronized (this) {
+            for (long targetId : getFollowees(userId)) {
+                state.overlay.set(userId, targetId, false);
+            }
+            for (long subscriberId : getFollowers(userId)) {
+                state.overlay.set(subscriberId, userId, false);
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.graph.index.compact-interval-ms:60000}")
+    public void compactIfNeeded() {
+        if (ready && state.overlay.changes >= compactThreshold) {
+            compact();
+        }
+    }
+    
+    /**
+     * Folds the overlay into a new snapshot. The snapshot is built from a captured state
+     * without the lock, so follows keep committing meanwhile; only the swap is locked. Called
+     * from the scheduler, one compaction at a time.
+     */
+    void compact() {
+        State captured = state;
+        long[] nodes = nodeIds(captured);
+        CsrBuilder builder = new CsrBuilder(nodes);
+        for (long id : nodes) {
+            for (long targetId : followees(captured, id)) {
+                builder.add(id, targetId);
+            }
+        }
+        Snapshot snapshot = builder.build();
+        
+        synchronized (this) {
+            // The overlay kept recording follows during the build, and it holds desired edge
+            // state, so carrying over the entries the new snapshot disagrees with keeps both
+            // the ones the build missed and the ones it raced with
+            Overlay remaining = new Overlay();
+            state.overlay.forEach((subscriberId, targetId, present) -> {
+                if (snapshot.hasEdge(subscriberId, targetId) != present) {
+                    remaining.set(subscriberId, targetId, present);
+                }
+            });
+            state = new State(snapshot, remaining);
+        }
+    }
+    
+    private static long[] followees(State current, Long userId) {
+        return current.overlay.apply(userId, current.snapshot.followees(userId),
+                current.overlay.addedOut, current.overlay.removedOut);
+    }
+    
+    /**
+     * Snapshot nodes plus every user the overlay added an edge for, sorted and distinct.
+     */
+    private static long[] nodeIds(State current) {
+        LongArrayBuilder ids = new LongArrayBuilder();
+        for (long id : current.snapshot.nodes) {
+            ids.add(id);
+        }
+        for (Long id : current.overlay.addedOut.keySet()) {
+            ids.add(id);
+        }
+        for (Long id : current.overlay.addedIn.keySet()) {
+            ids.add(id);
+        }
+        long[] sorted = ids.toArray();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+    
+    private Snapshot scan() {
+        LongArrayBuilder userIds = new LongArrayBuilder();
+        jdbcTemplate.query(connection -> streaming(connection.prepareStatement(USER_IDS_SQL)),
+                rs -> {
+                    userIds.add(rs.getLong(1));
+                });
+        
+        // Users created after the id scan are skipped; their follows arrive through the overlay
+        CsrBuilder builder = new CsrBuilder(userIds.toArray());
+        jdbcTemplate.query(connection -> streaming(connection.prepareStatement(EDGES_SQL)),
+                rs -> {
+                    builder.add(rs.getLong(1), rs.getLong(2));
+                });
+        return builder.build();
+    }
+    
+    private static PreparedStatement streaming(PreparedStatement statement) throws SQLException {
+        statement.setFetchSize(FETCH_SIZE);
+        return statement;
+    }
+    
+    private static final class State {
+        private final Snapshot snapshot;
+        private final Overlay overlay;
+        
+        private State(Snapshot snapshot, Overlay overlay) {
+            this.snapshot = snapshot;
+            this.overlay = overlay;
+        }
+    }
+    
+    /**
+     * Immutable adjacency in both directions. {@code outTargets[outOffsets[i]..outOffsets[i+1])}
+     * are the dense indexes followed by node {@code i}, sorted; likewise for followers.
+     */
+    static final class Snapshot {
+        
+        static final Snapshot EMPTY = new Snapshot(new long[0], new int[1], new int[0], new int[1], new int[0]);
+        
+        private final long[] nodes;
+        private final int[] outOffsets;
+        private final int[] outTargets;
+        private final int[] inOffsets;
+        private final int[] inSources;
+        
+        private Snapshot(long[] nodes, int[] outOffsets, int[] outTargets, int[] inOffsets, int[] inSources) {
+            this.nodes = nodes;
+            this.outOffsets = outOffsets;
+            this.outTargets = outTargets;
+            this.inOffsets = inOffsets;
+            this.inSources = inSources;
+        }
+        
+        long[] followees(long userId) {
+            return neighbours(userId, outOffsets, outTargets);
+        }
+        
+        long[] followers(long userId) {
+            return neighbours(userId, inOffsets, inSources);
+        }
+        
+        int followeeCount(long userId) {
+            int node = Arrays.binarySearch(nodes, userId);
+            return node < 0 ? 0 : outOffsets[node + 1] - outOffsets[node];
+        }
+        
+        int followerCount(long userId) {
+            int node = Arrays.binarySearch(nodes, userId);
+            return node < 0 ? 0 : inOffsets[node + 1] - inOffsets[node];
+        }
+        
+        boolean hasEdge(long subscriberId, long targetId) {
+            int source = Arrays.binarySearch(nodes, subscriberId);
+            int target = Arrays.binarySearch(nodes, targetId);
+            return source >= 0 && target >= 0
+                    && Arrays.binarySearch(outTargets, outOffsets[source], outOffsets[source + 1], target) >= 0;
+        }
+        
+        private long[] neighbours(long userId, int[] offsets, int[] adjacency) {
+            int node = Arrays.binarySearch(nodes, userId);
+            if (node < 0) {
+                return SocialGraphIndex.EMPTY;
+            }
+            int from = offsets[node];
+            int to = offsets[node + 1];
+            long[] ids = new long[to - from];
+            for (int i = from; i < to; i++) {
+                ids[i - from] = nodes[adjacency[i]];
+            }
+            return ids;
+        }
+    }
+    
+    /**
+     * Edges changed since the snapshot, as the state each edge should now have. An edge is
+     * in at most one of the added/removed sets for its subscriber, so readers never need the
+     * snapshot to decide whether an overlay entry applies.
+     */
+    private static final class Overlay {
+        
+        private final ConcurrentMap<Long, Set<Long>> addedOut = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Long, Set<Long>> removedOut = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Long, Set<Long>> addedIn = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Long, Set<Long>> removedIn = new ConcurrentHashMap<>();
+        
+        private volatile int changes;
+        
+        // Callers hold the index lock
+        void set(Long subscriberId, Long targetId, boolean present) {
+            toggle(present ? addedOut : removedOut, present ? removedOut : addedOut, subscriberId, targetId);
+            toggle(present ? addedIn : removedIn, present ? removedIn : addedIn, targetId, subscriberId);
+            changes++;
+        }
+        
+        void forEach(EdgeVisitor visitor) {
+            addedOut.forEach((subscriberId, targets) -> targets.forEach(
+                    targetId -> visitor.visit(subscriberId, targetId, true)));
+            removedOut.forEach((subscriberId, targets) -> targets.forEach(
+                    targetId -> visitor.visit(subscriberId, targetId, false)));
+        }
+        
+        private static void toggle(ConcurrentMap<Long, Set<Long>> include, ConcurrentMap<Long, Set<Long>> exclude,
+                                   Long userId, Long otherId) {
+            Set<Long> excluded = exclude.get(userId);
+            if (excluded != null) {
+                excluded.remove(otherId);
+            }
+            include.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(otherId);
+        }
+        
+        long[] apply(Long userId, long[] base, Map<Long, Set<Long>> addedBy, Map<Long, Set<Long>> removedBy) {
+            Set<Long> added = addedBy.getOrDefault(userId, Collections.emptySet());
+            Set<Long> removed = removedBy.getOrDefault(userId, Collections.emptySet());
+            if (added.isEmpty() && removed.isEmpty()) {
+                return base;
+            }
+            LongArrayBuilder ids = new LongArrayBuilder();
+            for (long id : base) {
+                if (!removed.contains(id)) {
+                    ids.add(id);
+                }
+            }
+            for (Long id : added) {
+                if (Arrays.binarySearch(base, id) < 0) {
+                    ids.add(id);
+                }
+            }
+            long[] result = ids.toArray();
+            Arrays.sort(result);
+            return result;
+        }
+    }
+    
+    private interface EdgeVisitor {
+        void visit(Long subscriberId, Long targetId, boolean present);
+    }
+    
+    /**
+     * Builds a snapshot from edges added in {@code (subscriber, target)} order.
+     */
+    private static final class CsrBuilder {
+        
+        private final long[] nodes;
+        private final int[] outDegrees;
+        private final IntArrayBuilder outTargets = new IntArrayBuilder();
+        
+        private CsrBuilder(long[] nodes) {
+            this.nodes = nodes;
+            this.outDegrees = new int[nodes.length];
+        }
+        
+        void add(long subscriberId, long targetId) {
+            int source = Arrays.binarySearch(nodes, subscriberId);
+            int target = Arrays.binarySearch(nodes, targetId);
+            if (source >= 0 && target >= 0) {
+                outDegrees[source]++;
+                outTargets.add(target);
+            }
+        }
+        
+        Snapshot build() {
+            int[] targets = outTargets.toArray();
+            int[] outOffsets = prefixSums(outDegrees);
+            
+            int[] inDegrees = new int[nodes.length];
+            for (int target : targets) {
+                inDegrees[target]++;
+            }
+            int[] inOffsets = prefixSums(inDegrees);
+            int[] inSources = new int[targets.length];
+            int[] cursor = Arrays.copyOf(inOffsets, nodes.length);
+            // Sources are visited in ascending order, so every follower list comes out sorted
+            for (int source = 0; source < nodes.length; source++) {
+                for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+                    inSources[cursor[targets[i]]++] = source;
+                }
+            }
+            return new Snapshot(nodes, outOffsets, targets, inOffsets, inSources);
+        }
+        
+        private static int[] prefixSums(int[] degrees) {
+            int[] offsets = new int[degrees.length + 1];
+            for (int i = 0; i < degrees.length; i++) {
+                offsets[i + 1] = offsets[i] + degrees[i];
+            }
+            return offsets;
+        }
+    }
+    
+    private static final class IntArrayBuilder {
+        private int[] values = new int[1024];
+        private int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+        }
+        
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+    
+    private static final class LongArrayBuilder {
+        private long[] values = new long[16];
+        private int size;
+        
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+        }
+        
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.example.socialmedia.service;
+
+import com.example.socialmedia.dto.PageCursor;
+import com.example.socialmedia.event.PostCreatedEvent;
+import com.example.socialmedia.event.PostDeletedEvent;
+import com.example.socialmedia.event.SubscriptionChangedEvent;
+import com.example.socialmedia.event.UserDeletedEvent;
+import com.example.socialmedia.repository.PostRepository;
+import com.example.socialmedia.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fan-out-on-write feed. New posts are pushed into the timelines of the author's subscribers
+ * once the creating transaction commits; authors with more than
+ * {@code app.feed.fanout.max-followers} subscribers are skipped and merged in at read time.
+ */
+@Service
+public class TimelineService {
+    
+    @Autowired
+    private TimelineStore timelineStore;
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private SocialGraphIndex socialGraphIndex;
+    
+    @Value("${app.feed.fanout-on-write.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.feed.fanout.max-followers:10000}")
+    private int maxFanoutFollowers;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @TransactionalEventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        
+        long timestamp = TimelineStore.toTimestamp(event.getCreatedAt());
+        timelineStore.push(event.getAuthorId(), event.getPostId(), timestamp);
+        
+        if (socialGraphIndex.isReady()) {
+            if (socialGraphIndex.getFollowerCount(event.getAuthorId()) > maxFanoutFollowers) {
+                return;
+            }
+            for (long subscriberId : socialGraphIndex.getFollowers(event.getAuthorId())) {
+                timelineStore.push(subscriberId, event.getPostId(), timestamp);
+            }
+            return;
+        }
+        
+        List<Long> subscriberIds = userRepository.findSubscriberIds(
+                event.getAuthorId(), PageRequest.of(0, maxFanoutFollowers + 1));
+        if (subscriberIds.size() > maxFanoutFollowers) {
+            return;
+        }
+        for (Long subscriberId : subscriberIds) {
+            timelineStore.push(subscriberId, event.getPostId(), timestamp);
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        if (enabled) {
+            timelineStore.removePost(event.getPostId());
+        }
+    }
+    
+    /**
+     * Drops the deleted user's own timeline. Their posts are gone by now and the rings do not
+     * record authors, so other timelines shed those ids lazily through {@link #discard}.
+     */
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (enabled) {
+            timelineStore.evict(event.getUserId());
+        }
+    }
+    
+    /**
+     * Drops the subscriber's timeline once the follow or unfollow has committed, so the next
+     * read rebuilds it from the new subscription set. Evicting before commit would let a
+     * concurrent read rebuild and cache the old set.
+     */
+    @TransactionalEventListener
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        if (enabled) {
+            timelineStore.evict(event.getSubscriberId());
+        }
+    }
+    
+    /**
+     * Removes ids from the user's timeline that no longer resolve to a post.
+     */
+    public void discard(Long userId, Collection<Long> postIds) {
+        timelineStore.removePosts(userId, postIds);
+    }
+    
+    /**
+     * Returns up to {@code count} feed post ids older than {@code after}, newest first, or
+     * {@code null} when the timeline cannot answer and the caller should use the read path.
+     */
+    public List<Long> readFeed(Long userId, PageCursor after, int count) {
+        TimelineStore.Timeline timeline = timelineStore.acquire(userId);
+        if (!timeline.isLoaded()) {
+            rebuild(userId, timeline);
+        }
+        
+        long beforeTimestamp = after != null ? TimelineStore.toTimestamp(after.getCreatedAt()) : Long.MAX_VALUE;
+        long beforeId = after != null ? after.getId() : Long.MAX_VALUE;
+        long[] ids = new long[count];
+        long[] stamps = new long[count];
+        int found = timeline.page(beforeTimestamp, beforeId, ids, stamps);
+        if (found < count && !timeline.isExhaustive()) {
+            return null;
+        }
+        
+        List<Long> pulledAuthors = findPulledAuthors(userId);
+        if (pulledAuthors.isEmpty()) {
+            List<Long> result = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                result.add(ids[i]);
+            }
+            return result;
+        }
+        
+        PageRequest window = PageRequest.of(0, count);
+        List<Object[]> pulled = after != null
+                ? postRepository.findKeysByAuthorsBefore(pulledAuthors, after.getCreatedAt(), after.getId(), window)
+                : postRepository.findKeysByAuthors(pulledAuthors, window);
+        return merge(ids, stamps, found, pulled, count);
+    }
+    
+    /**
+     * Followees above the fan-out threshold, whose posts are never pushed and have to be
+     * merged in at read time.
+     */
+    private List<Long> findPulledAuthors(Long userId) {
+        if (!socialGraphIndex.isReady()) {
+            return userRepository.findSubscriptionIdsWithMinSubscribers(userId, maxFanoutFollowers + 1);
+        }
+        List<Long> authors = new ArrayList<>();
+        for (long followeeId : socialGraphIndex.getFollowees(userId)) {
+            if (socialGraphIndex.getFollowerCount(followeeId) > maxFanoutFollowers) {
+                authors.add(followeeId);
+            }
+        }
+        return authors;
+    }
+    
+    /**
+     * Fills a cold timeline from {@code user_subscriptions}. Posts pushed while the rebuild is
+     * running are kept; duplicates are dropped by the timeline itself.
+     */
+    private void rebuild(Long userId, TimelineStore.Timeline timeline) {
+        timeline.getRebuildLock().lock();
+        try {
+            if (timeline.isLoaded()) {
+                return;
+            }
+            int capacity = timelineStore.getCapacity();
+            List<Object[]> rows = postRepository.findFeedKeys(userId, PageRequest.of(0, capacity));
+            for (Object[] row : rows) {
+                timeline.push((Long) row[0], TimelineStore.toTimestamp((LocalDateTime) row[1]));
+            }
+            timeline.markLoaded(rows.size() >= capacity);
+        } finally {
+            timeline.getRebuildLock().unlock();
+        }
+    }
+    
+    private List<Long> merge(long[] ids, long[] stamps, int found, List<Object[]> pulled, int count) {
+        List<Long> result = new ArrayList<>(count);
+        Set<Long> seen = new HashSet<>();
+        int i = 0;
+        int j = 0;
+        while (result.size() < count && (i < found || j < pulled.size())) {
+            long id;
+            if (j >= pulled.size()) {
+                id = ids[i++];
+            } else {
+                long pulledId = (Long) pulled.get(j)[0];
+                long pulledStamp = TimelineStore.toTimestamp((LocalDateTime) pulled.get(j)[1]);
+                if (i < found && (stamps[i] > pulledStamp || (stamps[i] == pulledStamp && ids[i] > pulledId))) {
+                    id = ids[i++];
+                } else {
+                    id = pulledId;
+                    j++;
+                }
+            }
+            if (seen.add(id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,222 @@
+package com.example.socialmedia.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process store of precomputed feeds. Each user gets a fixed-size ring of post ids kept
+ * ordered by {@code (timestamp, id)}; only timelines that have been read at least once are
+ * materialised, so fan-out never allocates memory for inactive users.
+ * <p>
+ * Timelines live in a bounded Caffeine cache: a ring costs about {@code capacity * 16} bytes,
+ * so the defaults (800 entries, 10000 users) cap the store at roughly 128 MB. Timelines that
+ * fall out of the cache or sit idle past {@code app.feed.timeline.idle-minutes} are rebuilt
+ * from the database on the next read.
+ */
+@Component
+public class TimelineStore {
+    
+    @Value("${app.feed.timeline.capacity:800}")
+    private int capacity;
+    
+    @Value("${app.feed.timeline.max-users:10000}")
+    private long maxUsers;
+    
+    @Value("${app.feed.timeline.idle-minutes:60}")
+    private long idleMinutes;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Cache<Long, Timeline> timelines;
+    
+    @PostConstruct
+    public void init() {
+        timelines = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "timelines");
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Returns the user's timeline, creating an unloaded one if needed; the cache evicts the
+     * least valuable timeline once {@code max-users} is reached.
+     */
+    public Timeline acquire(Long userId) {
+        return timelines.get(userId, id -> new Timeline(capacity));
+    }
+    
+    public void push(Long userId, long postId, long timestamp) {
+        // Through the map view so fan-out to users without a timeline is not counted as misses
+        Timeline timeline = timelines.asMap().get(userId);
+        if (timeline != null) {
+            timeline.push(postId, timestamp);
+        }
+    }
+    
+    public void evict(Long userId) {
+        timelines.invalidate(userId);
+    }
+    
+    /**
+     * Drops a deleted post from every materialised timeline. Walks all of them, which is fine
+     * for deletes but not something to call on a hot path.
+     */
+    public void removePost(long postId) {
+        for (Timeline timeline : timelines.asMap().values()) {
+            timeline.remove(postId);
+        }
+    }
+    
+    public void removePosts(Long userId, Collection<Long> postIds) {
+        Timeline timeline = timelines.asMap().get(userId);
+        if (timeline != null) {
+            for (Long postId : postIds) {
+                timeline.remove(postId);
+            }
+        }
+    }
+    
+    public static long toTimestamp(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+    
+    public static final class Timeline {
+        
+        private final long[] postIds;
+        private final long[] timestamps;
+        private int start;
+        private int size;
+        private boolean loaded;
+        private boolean truncated;
+        // Held across the rebuild query; a lock rather than the monitor so pushes are not
+        // blocked meanwhile
+        private final ReentrantLock rebuildLock = new ReentrantLock();
+        
+        Timeline(int capacity) {
+            this.postIds = new long[capacity];
+            this.timestamps = new long[capacity];
+        }
+        
+        ReentrantLock getRebuildLock() {
+            return rebuildLock;
+        }
+        
+        public synchronized boolean isLoaded() {
+            return loaded;
+        }
+        
+        /**
+         * True when the timeline holds the user's whole feed, so a short page really is the end.
+         */
+        public synchronized boolean isExhaustive() {
+            return loaded && !truncated;
+        }
+        
+        public synchronized void markLoaded(boolean truncated) {
+            this.truncated |= truncated;
+            this.loaded = true;
+        }
+        
+        public synchronized void push(long postId, long timestamp) {
+            int position = size;
+            while (position > 0) {
+                int slot = slot(position - 1);
+                int cmp = compare(timestamps[slot], postIds[slot], timestamp, postId);
+                if (cmp == 0) {
+                    return;
+                }
+                if (cmp < 0) {
+                    break;
+                }
+                position--;
+            }
+            
+            if (size == postIds.length) {
+                truncated = true;
+                if (position == 0) {
+                    return;
+                }
+                start = slot(1);
+                size--;
+                position--;
+            }
+            
+            for (int i = size; i > position; i--) {
+                int to = slot(i);
+                int from = slot(i - 1);
+                postIds[to] = postIds[from];
+                timestamps[to] = timestamps[from];
+            }
+            int slot = slot(position);
+            postIds[slot] = postId;
+            timestamps[slot] = timestamp;
+            size++;
+        }
+        
+        /**
+         * Removes the entry for {@code postId} if present. The freed slot is not refilled, so a
+         * truncated timeline simply holds one entry fewer until the next rebuild.
+         */
+        public synchronized void remove(long postId) {
+            int position = 0;
+            while (position < size && postIds[slot(position)] != postId) {
+                position++;
+            }
+            if (position == size) {
+                return;
+            }
+            for (int i = position; i < size - 1; i++) {
+                int to = slot(i);
+                int from = slot(i + 1);
+                postIds[to] = postIds[from];
+                timestamps[to] = timestamps[from];
+            }
+            size--;
+        }
+        
+        /**
+         * Copies entries strictly older than {@code (beforeTimestamp, beforeId)}, newest first,
+         * into the given arrays and returns how many were written.
+         */
+        public synchronized int page(long beforeTimestamp, long beforeId, long[] ids, long[] stamps) {
+            int count = 0;
+            for (int i = size - 1; i >= 0 && count < ids.length; i--) {
+                int slot = slot(i);
+                if (compare(timestamps[slot], postIds[slot], beforeTimestamp, beforeId) < 0) {
+                    ids[count] = postIds[slot];
+                    stamps[count] = timestamps[slot];
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        private int slot(int position) {
+            return (start + position) % postIds.length;
+        }
+        
+        private static int compare(long timestamp, long id, long otherTimestamp, long otherId) {
+            int cmp = Long.compare(timestamp, otherTimestamp);
+            return cmp != 0 ? cmp : Long.compare(id, otherId);
+        }
+    }
+}
\ No newline at end of file
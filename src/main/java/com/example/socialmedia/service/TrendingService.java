@@ -0,0 +1,565 @@
+package com.example.socialmedia.service;
+
+import com.example.socialmedia.dto.PostResponse;
+import com.example.socialmedia.event.CommentCreatedEvent;
+import com.example.socialmedia.event.PostDeletedEvent;
+import com.example.socialmedia.event.PostLikeChangedEvent;
+import com.example.socialmedia.repository.PostRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Trending posts, ranked by an engagement score that halves every
+ * {@code app.trending.half-life-minutes}. Views, likes and new comments each add their
+ * configured weight; unlikes take it back.
+ * <p>
+ * Scores use forward decay: an event at time {@code t} adds {@code weight * e^(λ(t - landmark))}.
+ * Stored values therefore never need ageing, and their order only changes when events
+ * arrive. They live in striped open-addressing maps keyed by primitive post ids, so recording
+ * an event is one hash probe under a short lock. Every {@code refresh-interval-ms} a size-K
+ * min-heap picks the leaders, entries that decayed below {@code min-score} are dropped, and
+ * the resolved posts are swapped in. The endpoint then only copies a list. Posts older than
+ * {@code max-age-hours} fall out of the ranking.
+ * <p>
+ * Scores are written to {@code snapshot-path} periodically and on shutdown, so a restart
+ * resumes the ranking instead of starting cold.
+ */
+@Service
+public class TrendingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+    
+    private static final int STRIPES = 16;
+    
+    private static final int SNAPSHOT_MAGIC = 0x54524e44;
+    
+    // Stored values grow as e^(λ(t - landmark)); moving the landmark keeps them far from overflow
+    private static final double MAX_EXPONENT = 40;
+    
+    @Autowired
+    private PostRepository postRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.trending.size:100}")
+    private int size;
+    
+    @Value("${app.trending.half-life-minutes:360}")
+    private long halfLifeMinutes;
+    
+    @Value("${app.trending.max-age-hours:48}")
+    private long maxAgeHours;
+    
+    @Value("${app.trending.min-score:0.05}")
+    private double minScore;
+    
+    @Value("${app.trending.view-weight:1}")
+    private double viewWeight;
+    
+    @Value("${app.trending.like-weight:5}")
+    private double likeWeight;
+    
+    @Value("${app.trending.comment-weight:10}")
+    private double commentWeight;
+    
+    @Value("${app.trending.snapshot-path:data/trending.snapshot}")
+    private String snapshotPath;
+    
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    
+    // Decay rate per millisecond
+    private double lambda;
+    
+    // Only moved while every stripe lock is held
+    private volatile long landmark = System.currentTimeMillis();
+    
+    private volatile List<PostResponse> trending = Collections.emptyList();
+    
+    @PostConstruct
+    public void init() {
+        lambda = Math.log(2) / TimeUnit.MINUTES.toMillis(halfLifeMinutes);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        loadSnapshot();
+        Gauge.builder("trending.posts.tracked", this, TrendingService::trackedCount).register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        saveSnapshot();
+    }
+    
+    /**
+     * Up to {@code limit} trending posts, highest score first, as of the last refresh.
+     */
+    public List<PostResponse> getTrending(int limit) {
+        List<PostResponse> current = trending;
+        return current.subList(0, Math.max(0, Math.min(limit, current.size())));
+    }
+    
+    public void recordView(Long postId) {
+        record(postId, viewWeight);
+    }
+    
+    @TransactionalEventListener
+    public void onPostLikeChanged(PostLikeChangedEvent event) {
+        record(event.getPostId(), event.isLiked() ? likeWeight : -likeWeight);
+    }
+    
+    @TransactionalEventListener
+    public void onCommentCreated(CommentCreatedEvent event) {
+        record(event.getPostId(), commentWeight);
+    }
+    
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        long postId = event.getPostId();
+        Stripe stripe = stripe(postId);
+        stripe.lock.lock();
+        try {
+            stripe.scores.remove(postId);
+        } finally {
+            stripe.lock.unlock();
+        }
+        trending = Collections.unmodifiableList(trending.stream()
+                .filter(post -> post.getId() != postId)
+                .collect(Collectors.toList()));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval-ms:10000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        if (lambda * (now - landmark) > MAX_EXPONENT) {
+            rescale(now);
+        }
+        
+        // A stored value below this has decayed under min-score by now
+        double threshold = minScore * Math.exp(lambda * (now - landmark));
+        TopK top = new TopK(size);
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.scores.retainAbove(threshold);
+                stripe.scores.forEach(top::offer);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        
+        long[] ids = top.drainDescending();
+        if (ids.length == 0) {
+            trending = Collections.emptyList();
+            return;
+        }
+        try {
+            trending = resolve(ids);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not refresh trending posts, keeping the previous ranking", ex);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.trending.snapshot-interval-ms:60000}",
+            initialDelayString = "${app.trending.snapshot-interval-ms:60000}")
+    public synchronized void saveSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeDouble(lambda);
+                out.writeLong(landmark);
+                out.writeInt(STRIPES);
+                for (Stripe stripe : stripes) {
+                    ScoreMap copy;
+                    stripe.lock.lock();
+                    try {
+                        copy = stripe.scores.copy();
+                    } finally {
+                        stripe.lock.unlock();
+                    }
+                    out.writeInt(copy.size());
+                    copy.forEach((postId, score) -> {
+                        try {
+                            out.writeLong(postId);
+                            out.writeDouble(score);
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    });
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Could not write trending snapshot to {}", path, ex);
+        }
+    }
+    
+    private void loadSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            // A snapshot taken with another half-life would rank on the wrong curve
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readDouble() != lambda) {
+                logger.info("Ignoring trending snapshot {} written with different settings", path);
+                return;
+            }
+            landmark = in.readLong();
+            int count = 0;
+            int sections = in.readInt();
+            for (int i = 0; i < sections; i++) {
+                int entries = in.readInt();
+                for (int j = 0; j < entries; j++) {
+                    long postId = in.readLong();
+                    stripe(postId).scores.add(postId, in.readDouble());
+                    count++;
+                }
+            }
+            rescale(System.currentTimeMillis());
+            logger.info("Loaded {} trending scores from {}", count, path);
+        } catch (IOException ex) {
+            logger.warn("Could not read trending snapshot {}, starting cold", path, ex);
+            for (Stripe stripe : stripes) {
+                stripe.scores.clear();
+            }
+            landmark = System.currentTimeMillis();
+        }
+    }
+    
+    private void record(Long postId, double weight) {
+        if (postId == null || postId <= 0) {
+            return;
+        }
+        Stripe stripe = stripe(postId);
+        stripe.lock.lock();
+        try {
+            stripe.scores.add(postId, weight * Math.exp(lambda * (System.currentTimeMillis() - landmark)));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    /**
+     * Moves the landmark to {@code now}, scaling every stored value so scores stay the same.
+     * Synchronized with snapshots so one never pairs a landmark with values scaled to another.
+     */
+    private synchronized void rescale(long now) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            double factor = Math.exp(-lambda * (now - landmark));
+            for (Stripe stripe : stripes) {
+                stripe.scores.scale(factor);
+            }
+            landmark = now;
+        } finally {
+            for (Stripe stripe : stripes) {
+                stripe.lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Loads the posts in score order; deleted posts and those past the age window are
+     * dropped from the scores so the next refresh fills their places.
+     */
+    private List<PostResponse> resolve(long[] ids) {
+        Map<Long, PostResponse> posts = postRepository.findResponsesByIds(LongStream.of(ids).boxed().collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(PostResponse::getId, Function.identity()));
+        LocalDateTime oldest = LocalDateTime.now().minusHours(maxAgeHours);
+        List<PostResponse> result = new ArrayList<>(posts.size());
+        for (long postId : ids) {
+            PostResponse post = posts.get(postId);
+            if (post != null && (post.getCreatedAt() == null || post.getCreatedAt().isAfter(oldest))) {
+                result.add(post);
+                continue;
+            }
+            Stripe stripe = stripe(postId);
+            stripe.lock.lock();
+            try {
+                stripe.scores.remove(postId);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+    
+    private Stripe stripe(long postId) {
+        return stripes[(int) (postId ^ (postId >>> 32)) & (STRIPES - 1)];
+    }
+    
+    private double trackedCount() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            count += stripe.scores.size();
+        }
+        return count;
+    }
+    
+    private static final class Stripe {
+        
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ScoreMap scores = new ScoreMap(16);
+    }
+    
+    @FunctionalInterface
+    interface ScoreConsumer {
+        void accept(long postId, double score);
+    }
+    
+    /**
+     * Open-addressing {@code long -> double} map with linear probing. Key 0 marks an empty
+     * slot, which is safe because post ids start at 1. Not thread-safe.
+     */
+    static final class ScoreMap {
+        
+        private long[] keys;
+        private double[] values;
+        private int size;
+        
+        ScoreMap(int expected) {
+            keys = new long[tableSize(expected)];
+            values = new double[keys.length];
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        void add(long key, double delta) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    values[i] += delta;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = delta;
+            if (++size * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+        }
+        
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int hole = hash(key) & mask;
+            while (keys[hole] != key) {
+                if (keys[hole] == 0) {
+                    return;
+                }
+                hole = (hole + 1) & mask;
+            }
+            // Shift later entries of the probe run back so lookups never stop at the hole
+            int i = (hole + 1) & mask;
+            while (keys[i] != 0) {
+                int home = hash(keys[i]) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    hole = i;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[hole] = 0;
+            values[hole] = 0;
+            size--;
+        }
+        
+        /**
+         * Drops every entry whose value is below {@code threshold}, shrinking the table to fit.
+         */
+        void retainAbove(double threshold) {
+            int survivors = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0 && values[i] >= threshold) {
+                    survivors++;
+                }
+            }
+            if (survivors == size) {
+                return;
+            }
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new long[tableSize(survivors)];
+            values = new double[keys.length];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0 && oldValues[i] >= threshold) {
+                    add(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+        
+        void scale(double factor) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] *= factor;
+            }
+        }
+        
+        void clear() {
+            keys = new long[tableSize(0)];
+            values = new double[keys.length];
+            size = 0;
+        }
+        
+        ScoreMap copy() {
+            ScoreMap copy = new ScoreMap(0);
+            copy.keys = keys.clone();
+            copy.values = values.clone();
+            copy.size = size;
+            return copy;
+        }
+        
+        void forEach(ScoreConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    consumer.accept(keys[i], values[i]);
+                }
+            }
+        }
+        
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new long[capacity];
+            values = new double[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    add(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+        
+        private static int tableSize(int expected) {
+            return Math.max(16, Integer.highestOneBit(Math.max(1, expected * 2 - 1)) << 1);
+        }
+        
+        private static int hash(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+        }
+    }
+    
+    /**
+     * Keeps the {@code capacity} highest-scoring ids in a binary min-heap over primitive arrays.
+     */
+    static final class TopK {
+        
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+        
+        TopK(int capacity) {
+            ids = new long[Math.max(1, capacity)];
+            scores = new double[ids.length];
+        }
+        
+        void offer(long id, double score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+        
+        /**
+         * Empties the heap, returning the ids from highest to lowest score.
+         */
+        long[] drainDescending() {
+            long[] result = new long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return result;
+        }
+        
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= scores[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+        
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+        
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
\ No newline at end of file
@@ -1,14 +1,33 @@
 package com.example.socialmedia.service;
 
+import com.example.socialmedia.dto.UserRecommendation;
+import com.example.socialmedia.dto.UserResponse;
+import com.example.socialmedia.dto.UserSummary;
+import com.example.socialmedia.event.SubscriptionChangedEvent;
+import com.example.socialmedia.event.UserDeletedEvent;
+import com.example.socialmedia.exception.BadRequestException;
 import com.example.socialmedia.exception.ResourceNotFoundException;
 import com.example.socialmedia.model.User;
+import com.example.socialmedia.repository.SubscriptionRepository;
 import com.example.socialmedia.repository.UserRepository;
+import com.example.socialmedia.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
@@ -16,8 +35,34 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    
+    @Autowired
+    private PrincipalCache principalCache;
+    
+    @Autowired
+    private NdjsonWriter ndjsonWriter;
+    
+    @Autowired
+    private RecommendationService recommendationService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.recommendations.max-results:50}")
+    private int maxRecommendations;
+    
+    public Slice<UserResponse> getAllUsers(Pageable pageable) {
+        // Ordering is fixed by the query; only the page window is taken from the request
+        return userRepository.findAllResponses(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+    
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream out) throws IOException {
+        try (Stream<UserResponse> users = userRepository.streamAllResponses()) {
+            return ndjsonWriter.write(users, out);
+        }
     }
     
     public User getUserById(Long id) {
@@ -25,52 +70,108 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
     }
     
-    public User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
+    public UserResponse getUserResponse(Long id) {
+        return userRepository.findResponseById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+    }
+    
+    public UserResponse getUserByUsername(String username) {
+        return userRepository.findResponseByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
     }
     
     @Transactional
-    public User updateUser(Long id, User userDetails) {
+    public UserResponse updateUser(Long id, User userDetails) {
         User user = getUserById(id);
         
         user.setBio(userDetails.getBio());
         user.setProfilePicture(userDetails.getProfilePicture());
         
-        return userRepository.save(user);
+        userRepository.save(user);
+        return getUserResponse(id);
     }
     
     @Transactional
     public void deleteUser(Long id) {
         User user = getUserById(id);
+        subscriptionRepository.removeAll(id);
         userRepository.delete(user);
+        principalCache.invalidate(user.getUsername());
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
+    }
+    
+    @Transactional
+    public boolean subscribeToUser(Long subscriberId, Long targetId) {
+        if (subscriberId.equals(targetId)) {
+            throw new BadRequestException("Users cannot subscribe to themselves");
+        }
+        requireUser(subscriberId);
+        requireUser(targetId);
+        
+        boolean subscribed = subscriptionRepository.follow(subscriberId, targetId);
+        if (subscribed) {
+            eventPublisher.publishEvent(new SubscriptionChangedEvent(
+                    subscriberId, Collections.singletonList(targetId), true));
+        }
+        return subscribed;
     }
     
     @Transactional
-    public void subscribeToUser(Long subscriberId, Long targetId) {
-        User subscriber = getUserById(subscriberId);
-        User target = getUserById(targetId);
+    public long subscribeToUsers(Long subscriberId, List<Long> targetIds) {
+        requireUser(subscriberId);
         
-        subscriber.getSubscriptions().add(target);
-        userRepository.save(subscriber);
+        List<Long> added = subscriptionRepository.followAll(subscriberId, targetIds);
+        if (!added.isEmpty()) {
+            eventPublisher.publishEvent(new SubscriptionChangedEvent(subscriberId, added, true));
+        }
+        return added.size();
     }
     
     @Transactional
-    public void unsubscribeFromUser(Long subscriberId, Long targetId) {
-        User subscriber = getUserById(subscriberId);
-        User target = getUserById(targetId);
+    public boolean unsubscribeFromUser(Long subscriberId, Long targetId) {
+        requireUser(subscriberId);
+        requireUser(targetId);
         
-        subscriber.getSubscriptions().remove(target);
-        userRepository.save(subscriber);
+        boolean unsubscribed = subscriptionRepository.unfollow(subscriberId, targetId);
+        if (unsubscribed) {
+            eventPublisher.publishEvent(new SubscriptionChangedEvent(
+                    subscriberId, Collections.singletonList(targetId), false));
+        }
+        return unsubscribed;
+    }
+    
+    public Slice<UserSummary> getUserSubscriptions(Long userId, Pageable pageable) {
+        requireUser(userId);
+        return userRepository.findSubscriptionSummaries(userId, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
     }
     
-    public Set<User> getUserSubscriptions(Long userId) {
-        User user = getUserById(userId);
-        return user.getSubscriptions();
+    public Slice<UserSummary> getUserSubscribers(Long userId, Pageable pageable) {
+        requireUser(userId);
+        return userRepository.findSubscriberSummaries(userId, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+    
+    public List<UserRecommendation> getRecommendations(Long userId, int limit) {
+        requireUser(userId);
+        List<RecommendationService.Recommendation> ranked =
+                recommendationService.recommend(userId, Math.max(1, Math.min(limit, maxRecommendations)));
+        if (ranked.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        List<Long> ids = ranked.stream().map(RecommendationService.Recommendation::getUserId).collect(Collectors.toList());
+        Map<Long, UserSummary> summaries = userRepository.findSummariesByIds(ids).stream()
+                .collect(Collectors.toMap(UserSummary::getId, Function.identity()));
+        // Users deleted since the ranking was computed have no summary and are dropped
+        return ranked.stream()
+                .filter(recommendation -> summaries.containsKey(recommendation.getUserId()))
+                .map(recommendation -> new UserRecommendation(
+                        summaries.get(recommendation.getUserId()), recommendation.getSharedFollowees()))
+                .collect(Collectors.toList());
     }
     
-    public Set<User> getUserSubscribers(Long userId) {
-        User user = getUserById(userId);
-        return user.getSubscribers();
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.example.socialmedia.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Write-behind view counter. Views are accumulated in striped in-memory counters and
+ * flushed as one batched {@code view_count = view_count + ?} update per post, so reading a
+ * post never takes a row lock.
+ * <p>
+ * Flushes do not evict the posts from the second-level cache: view counts are read through
+ * projections, never from the cached entity, so a cached post may carry a view count up to
+ * the {@code posts} region's expiry old.
+ */
+@Component
+public class ViewCountAggregator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ViewCountAggregator.class);
+    
+    private static final String FLUSH_SQL = "UPDATE posts SET view_count = view_count + ? WHERE id = ?";
+    
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2));
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final ConcurrentMap<Long, StripedCounter> pending = new ConcurrentHashMap<>();
+    
+    public void increment(Long postId) {
+        add(postId, 1L);
+    }
+    
+    public long getPending(Long postId) {
+        StripedCounter counter = pending.get(postId);
+        return counter != null ? counter.sum() : 0L;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.views.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        pending.forEach((postId, counter) -> {
+            long delta = counter.drain();
+            if (delta == 0 && pending.remove(postId, counter)) {
+                // Unlinked first, so writers that still hold the counter either land before
+                // it is closed and are drained here, or find it closed and retry on a new one
+                delta = counter.close();
+            }
+            addDelta(deltas, postId, delta);
+        });
+        
+        if (deltas.isEmpty()) {
+            return;
+        }
+        
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((postId, delta) -> batch.add(new Object[]{delta, postId}));
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not flush {} post view counts, retrying on next flush", deltas.size(), ex);
+            deltas.forEach(this::add);
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    private void add(Long postId, long delta) {
+        while (!pending.computeIfAbsent(postId, id -> new StripedCounter()).add(delta)) {
+            // Closed by a concurrent flush after it was unlinked; the next lookup creates a new one
+        }
+    }
+    
+    private static void addDelta(Map<Long, Long> deltas, Long postId, long delta) {
+        if (delta != 0) {
+            deltas.merge(postId, delta, Long::sum);
+        }
+    }
+    
+    /**
+     * LongAdder-style counter whose stripes can be drained atomically with getAndSet, which
+     * LongAdder.sumThenReset does not guarantee under concurrent updates. Closing swaps every
+     * stripe for a sentinel, so an add racing with the close either is counted by it or
+     * fails and is retried by the caller.
+     */
+    static final class StripedCounter {
+        
+        private static final long CLOSED = Long.MIN_VALUE;
+        
+        private final AtomicLongArray cells = new AtomicLongArray(STRIPES);
+        
+        /**
+         * Adds {@code delta}, or returns {@code false} if the counter has been closed.
+         */
+        boolean add(long delta) {
+            int stripe = stripe();
+            long current;
+            do {
+                current = cells.get(stripe);
+                if (current == CLOSED) {
+                    return false;
+                }
+            } while (!cells.compareAndSet(stripe, current, current + delta));
+            return true;
+        }
+        
+        long sum() {
+            long sum = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                long value = cells.get(i);
+                if (value != CLOSED) {
+                    sum += value;
+                }
+            }
+            return sum;
+        }
+        
+        /**
+         * Resets the stripes of an open counter and returns what they held.
+         */
+        long drain() {
+            long sum = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                sum += cells.getAndSet(i, 0L);
+            }
+            return sum;
+        }
+        
+        /**
+         * Closes the counter for good and returns what was added since the last drain.
+         */
+        long close() {
+            long sum = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                sum += cells.getAndSet(i, CLOSED);
+            }
+            return sum;
+        }
+        
+        private static int stripe() {
+            // Identity hash of the thread: stable per thread and spread across the stripes
+            int hash = System.identityHashCode(Thread.currentThread());
+            return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+-- Schema that spring.jpa.hibernate.ddl-auto=update produced for the entities at the
+-- time Flyway took over. Existing databases are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and skip this script, but ones created before the
+-- like_count columns existed do not match it exactly; later migrations add anything
+-- such databases may be missing with IF NOT EXISTS.
+
+CREATE TABLE roles (
+    id   BIGSERIAL PRIMARY KEY,
+    name VARCHAR(20)
+);
+
+CREATE TABLE users (
+    id              BIGSERIAL PRIMARY KEY,
+    username        VARCHAR(50)  NOT NULL,
+    email           VARCHAR(100) NOT NULL,
+    password        VARCHAR(120) NOT NULL,
+    bio             VARCHAR(255),
+    profile_picture VARCHAR(255),
+    created_at      TIMESTAMP,
+    updated_at      TIMESTAMP
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    role_id BIGINT NOT NULL REFERENCES roles (id),
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE user_subscriptions (
+    subscriber_id BIGINT NOT NULL REFERENCES users (id),
+    target_id     BIGINT NOT NULL REFERENCES users (id),
+    PRIMARY KEY (subscriber_id, target_id)
+);
+
+CREATE TABLE posts (
+    id         BIGSERIAL PRIMARY KEY,
+    title      VARCHAR(255) NOT NULL,
+    content    TEXT,
+    user_id    BIGINT       NOT NULL REFERENCES users (id),
+    like_count BIGINT       NOT NULL DEFAULT 0,
+    view_count BIGINT,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE post_likes (
+    post_id BIGINT NOT NULL REFERENCES posts (id),
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    PRIMARY KEY (post_id, user_id)
+);
+
+CREATE TABLE comments (
+    id         BIGSERIAL PRIMARY KEY,
+    content    TEXT   NOT NULL,
+    post_id    BIGINT NOT NULL REFERENCES posts (id),
+    user_id    BIGINT NOT NULL REFERENCES users (id),
+    like_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE comment_likes (
+    comment_id BIGINT NOT NULL REFERENCES comments (id),
+    user_id    BIGINT NOT NULL REFERENCES users (id),
+    PRIMARY KEY (comment_id, user_id)
+);
+
+INSERT INTO roles (name) VALUES ('ROLE_USER'), ('ROLE_MODERATOR'), ('ROLE_ADMIN');
\ No newline at end of file
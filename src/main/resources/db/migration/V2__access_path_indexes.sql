@@ -0,0 +1,50 @@
+-- Secondary indexes for the access paths in PostRepository, CommentRepository and
+-- UserRepository. Keep SchemaIndexVerifier.EXPECTED_INDEXES in sync with this file.
+
+-- Feed and profile pages: posts by author, newest first, keyset on (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_posts_user_created
+    ON posts (user_id, created_at DESC, id DESC);
+
+-- Comment pages and per-post comment counts, keyset on (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_comments_post_created
+    ON comments (post_id, created_at DESC, id DESC);
+
+-- Author foreign key, used when a user's content is removed
+CREATE INDEX IF NOT EXISTS idx_comments_user
+    ON comments (user_id);
+
+-- Subscriber lookups; the primary key only covers (subscriber_id, target_id)
+CREATE INDEX IF NOT EXISTS idx_user_subscriptions_target
+    ON user_subscriptions (target_id, subscriber_id);
+
+-- Likes by user; the primary keys lead with the liked post or comment
+CREATE INDEX IF NOT EXISTS idx_post_likes_user
+    ON post_likes (user_id);
+
+CREATE INDEX IF NOT EXISTS idx_comment_likes_user
+    ON comment_likes (user_id);
+
+-- Sign-in and sign-up lookups
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_username
+    ON users (username);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email
+    ON users (email);
+
+-- Roles were never seeded by ddl-auto, so baselined databases may be missing them
+INSERT INTO roles (name)
+SELECT r.name FROM (VALUES ('ROLE_USER'), ('ROLE_MODERATOR'), ('ROLE_ADMIN')) AS r (name)
+WHERE NOT EXISTS (SELECT 1 FROM roles WHERE roles.name = r.name);
+
+-- like_count columns were added after likes already existed, so baselined databases
+-- may not have them yet
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS like_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS like_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE posts p SET like_count = l.likes
+FROM (SELECT post_id, COUNT(*) AS likes FROM post_likes GROUP BY post_id) l
+WHERE p.id = l.post_id AND p.like_count <> l.likes;
+
+UPDATE comments c SET like_count = l.likes
+FROM (SELECT comment_id, COUNT(*) AS likes FROM comment_likes GROUP BY comment_id) l
+WHERE c.id = l.comment_id AND c.like_count <> l.likes;
\ No newline at end of file
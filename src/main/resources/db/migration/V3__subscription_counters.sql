@@ -0,0 +1,12 @@
+-- Denormalized follow counts, maintained by SubscriptionRepository in the same statement
+-- that inserts or deletes the user_subscriptions row
+ALTER TABLE users ADD COLUMN IF NOT EXISTS follower_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS following_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE users u SET follower_count = s.followers
+FROM (SELECT target_id, COUNT(*) AS followers FROM user_subscriptions GROUP BY target_id) s
+WHERE u.id = s.target_id;
+
+UPDATE users u SET following_count = s.following
+FROM (SELECT subscriber_id, COUNT(*) AS following FROM user_subscriptions GROUP BY subscriber_id) s
+WHERE u.id = s.subscriber_id;
\ No newline at end of file
@@ -0,0 +1,8 @@
+-- Flyway callback, run after every migrate. Hibernate allocates User, Post and Comment ids in
+-- pooled blocks and adopts the sequence increment it finds at startup
+-- (hibernate.id.sequence.increment_size_mismatch_strategy=fix), so the block size is set here
+-- from spring.flyway.placeholders.id_allocation_size. Plain SQL inserts that fall back to the
+-- column default still get unique ids; they just skip the rest of their block.
+ALTER SEQUENCE users_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE posts_id_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE comments_id_seq INCREMENT BY ${id_allocation_size};
\ No newline at end of file
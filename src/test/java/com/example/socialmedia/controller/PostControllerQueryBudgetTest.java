@@ -0,0 +1,148 @@
+package com.example.socialmedia.controller;
+
+import com.example.socialmedia.exception.QueryBudgetExceededException;
+import com.example.socialmedia.model.Post;
+import com.example.socialmedia.model.User;
+import com.example.socialmedia.repository.UserRepository;
+import com.example.socialmedia.service.PostService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the read endpoints of {@link PostController} with {@code app.sql.budget.mode=fail}, so
+ * any of them issuing more statements than its {@code @QueryBudget} fails the request.
+ * Handlers without a budget get {@code max-queries=0} here, which proves the filter is wired.
+ * <p>
+ * Runs on in-memory H2, so it only covers read endpoints. The like, follow and migration
+ * SQL is PostgreSQL-only ({@code ON CONFLICT}, data-modifying CTEs, {@code = ANY(?)}), and
+ * those write paths are left to a run against PostgreSQL.
+ */
+@SpringBootTest(properties = {
+        "app.sql.budget.mode=fail",
+        "app.sql.budget.max-queries=0",
+        "app.rate-limit.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:query-budget;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "app.schema.verify-indexes=false"
+})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "USER")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PostControllerQueryBudgetTest {
+    
+    private static final int POSTS = 30;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PostService postService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Long authorId;
+    
+    private Long readerId;
+    
+    private Long postId;
+    
+    @DynamicPropertySource
+    static void storagePaths(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("query-budget-test");
+        registry.add("app.search.index-path", () -> directory.resolve("search-index").toString());
+        registry.add("app.trending.snapshot-path", () -> directory.resolve("trending.snapshot").toString());
+    }
+    
+    @BeforeAll
+    void seed() {
+        authorId = userRepository.save(newUser("author")).getId();
+        readerId = userRepository.save(newUser("reader")).getId();
+        // Plain insert: SubscriptionRepository's statements are PostgreSQL-only
+        jdbcTemplate.update("INSERT INTO user_subscriptions (subscriber_id, target_id) VALUES (?, ?)",
+                readerId, authorId);
+        
+        // Pages span several posts, so a per-row query would blow the budget
+        for (int i = 0; i < POSTS; i++) {
+            Post post = new Post();
+            post.setTitle("Budget post " + i);
+            post.setContent("Budget content " + i);
+            postId = postService.createPost(post, authorId).getId();
+        }
+    }
+    
+    @Test
+    void getAllPostsStaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/posts").param("size", "20"))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void getTrendingPostsStaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/posts/trending"))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void searchPostsStaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/posts/search").param("q", "budget"))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void getPostByIdStaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void getPostsByUserStaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/posts/user/{userId}", authorId))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void getFeedPostsStaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/posts/feed/{userId}", readerId).param("size", "20"))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void handlerOverItsBudgetFails() {
+        assertThrows(QueryBudgetExceededException.class,
+                () -> mockMvc.perform(get("/api/users/{id}", authorId)));
+    }
+    
+    private static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("$2a$10$querybudgetquerybudgetquerybudgetquerybudgetqueryb");
+        return user;
+    }
+}
\ No newline at end of file
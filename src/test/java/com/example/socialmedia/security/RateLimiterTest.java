@@ -0,0 +1,156 @@
+package com.example.socialmedia.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the GCRA step at fixed clock values, then the limiter end to end: exactly
+ * {@code capacity} requests pass in a burst and the next one is told when a token is back.
+ */
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // Capacity 5 over 10 seconds: one token every 2 seconds, up to 4 intervals ahead
+    private static final long INTERVAL = 2 * SECOND;
+    private static final long TOLERANCE = 4 * INTERVAL;
+
+    private static final long NOW = 1_000 * SECOND;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Policy signin = new RateLimitProperties.Policy();
+        signin.setMethod("POST");
+        signin.setPaths(Arrays.asList("/api/auth/signin"));
+        signin.setKey(RateLimitProperties.Key.IP);
+        signin.setCapacity(3);
+        signin.setPeriod(Duration.ofMinutes(1));
+
+        RateLimitProperties.Policy likes = new RateLimitProperties.Policy();
+        likes.setPaths(Arrays.asList("/api/posts/*/like/*"));
+        likes.setCapacity(2);
+        likes.setPeriod(Duration.ofSeconds(30));
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getPolicies().put("signin", signin);
+        properties.getPolicies().put("likes", likes);
+
+        rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "properties", properties);
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", meterRegistry);
+        rateLimiter.init();
+    }
+
+    @Test
+    void fullBucketAllowsExactlyTheBurst() {
+        AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, RateLimiter.take(bucket, NOW, INTERVAL, TOLERANCE), "request " + i);
+        }
+        assertEquals(INTERVAL, RateLimiter.take(bucket, NOW, INTERVAL, TOLERANCE));
+        assertEquals(INTERVAL - SECOND, RateLimiter.take(bucket, NOW + SECOND, INTERVAL, TOLERANCE));
+    }
+
+    @Test
+    void tokensComeBackOneIntervalAtATime() {
+        AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+        for (int i = 0; i < 5; i++) {
+            RateLimiter.take(bucket, NOW, INTERVAL, TOLERANCE);
+        }
+
+        assertEquals(0, RateLimiter.take(bucket, NOW + INTERVAL, INTERVAL, TOLERANCE));
+        assertEquals(INTERVAL, RateLimiter.take(bucket, NOW + INTERVAL, INTERVAL, TOLERANCE));
+
+        // Rejections do not consume tokens, so after a full period the whole burst is back
+        long refilled = NOW + 6 * INTERVAL;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, RateLimiter.take(bucket, refilled, INTERVAL, TOLERANCE), "request " + i);
+        }
+        assertEquals(INTERVAL, RateLimiter.take(bucket, refilled, INTERVAL, TOLERANCE));
+    }
+
+    @Test
+    void requestsAtTheRefillRateAreNeverRejected() {
+        AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, RateLimiter.take(bucket, NOW + i * INTERVAL, INTERVAL, TOLERANCE), "request " + i);
+        }
+    }
+
+    @Test
+    void concurrentCallersShareTheBurst() throws InterruptedException {
+        AtomicLong bucket = new AtomicLong(Long.MIN_VALUE);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (RateLimiter.take(bucket, NOW, INTERVAL, TOLERANCE) == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(5, allowed.get());
+    }
+
+    @Test
+    void limiterAllowsTheBurstThenReturnsRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("POST", "/api/auth/signin", null, "10.0.0.1"), "request " + i);
+        }
+        // One token per 20 seconds, rounded up to whole seconds
+        assertEquals(20, rateLimiter.tryAcquire("POST", "/api/auth/signin", null, "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.counter("rate.limit.rejected", "policy", "signin").count());
+    }
+
+    @Test
+    void bucketsAreKeptPerPolicyAndCaller() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("POST", "/api/auth/signin", null, "10.0.0.1");
+        }
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/api/auth/signin", null, "10.0.0.2"));
+
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/api/posts/1/like/2", "alice", "10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/api/posts/1/like/2", "alice", "10.0.0.1"));
+        assertEquals(15, rateLimiter.tryAcquire("POST", "/api/posts/1/like/2", "alice", "10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/api/posts/1/like/2", "bob", "10.0.0.1"));
+        // USER-keyed policies fall back to the address for anonymous callers
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/api/posts/1/like/2", null, "10.0.0.1"));
+    }
+
+    @Test
+    void unmatchedRequestsAreNotLimited() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("GET", "/api/auth/signin", null, "10.0.0.1"));
+            assertEquals(0, rateLimiter.tryAcquire("POST", "/api/posts", "alice", "10.0.0.1"));
+        }
+    }
+}
\ No newline at end of file
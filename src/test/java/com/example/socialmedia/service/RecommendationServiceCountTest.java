@@ -0,0 +1,104 @@
+package com.example.socialmedia.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Checks {@link RecommendationService.CountTask} and {@link RecommendationService.Counts#merge}
+ * against a plain map count over the same follower lists.
+ */
+class RecommendationServiceCountTest {
+    
+    private final Random random = new Random(42);
+    
+    @Test
+    void singleLeafMatchesNaiveCount() {
+        long[][] lists = randomLists(20, 50, 200);
+        
+        assertCounts(lists, new RecommendationService.CountTask(lists, 0, lists.length, Long.MAX_VALUE).compute());
+    }
+    
+    @Test
+    void splitTasksMatchNaiveCount() {
+        long[][] lists = randomLists(200, 300, 1_000);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // A tiny threshold splits the range down to single lists, so every level merges
+            for (long threshold : new long[]{0, 1, 100, 5_000}) {
+                assertCounts(lists, pool.invoke(new RecommendationService.CountTask(lists, 0, lists.length, threshold)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    void emptyAndPartialRangesMatchNaiveCount() {
+        long[][] lists = {new long[0], {1, 5, 9}, new long[0], {5, 9, 12}, {9}};
+        
+        assertCounts(lists, new RecommendationService.CountTask(lists, 0, lists.length, 0).compute());
+        assertCounts(new long[0][], new RecommendationService.CountTask(lists, 2, 2, 0).compute());
+    }
+    
+    @Test
+    void mergeAddsCountsOfSharedIds() {
+        RecommendationService.Counts left = new RecommendationService.Counts(new long[]{1, 3, 5, 7}, new int[]{1, 2, 3, 4});
+        RecommendationService.Counts right = new RecommendationService.Counts(new long[]{2, 3, 7, 8, 9}, new int[]{5, 6, 7, 8, 9});
+        
+        RecommendationService.Counts merged = RecommendationService.Counts.merge(left, right);
+        
+        assertArrayEquals(new long[]{1, 2, 3, 5, 7, 8, 9}, ids(merged));
+        assertArrayEquals(new int[]{1, 5, 8, 3, 11, 8, 9}, counts(merged));
+    }
+    
+    @Test
+    void mergeWithEmptySideKeepsTheOther() {
+        RecommendationService.Counts empty = new RecommendationService.Counts(new long[0], new int[0]);
+        RecommendationService.Counts counts = new RecommendationService.Counts(new long[]{4, 6}, new int[]{2, 1});
+        
+        assertArrayEquals(new long[]{4, 6}, ids(RecommendationService.Counts.merge(empty, counts)));
+        assertArrayEquals(new int[]{2, 1}, counts(RecommendationService.Counts.merge(counts, empty)));
+    }
+    
+    /**
+     * Sorted, distinct follower lists like {@link SocialGraphIndex#getFollowers} returns.
+     */
+    private long[][] randomLists(int count, int maxSize, int idRange) {
+        long[][] lists = new long[count][];
+        for (int i = 0; i < count; i++) {
+            lists[i] = LongStream.generate(() -> random.nextInt(idRange))
+                    .limit(random.nextInt(maxSize + 1))
+                    .distinct()
+                    .sorted()
+                    .toArray();
+        }
+        return lists;
+    }
+    
+    private static void assertCounts(long[][] lists, RecommendationService.Counts actual) {
+        Map<Long, Integer> expected = new TreeMap<>();
+        for (long[] list : lists) {
+            for (long id : list) {
+                expected.merge(id, 1, Integer::sum);
+            }
+        }
+        assertArrayEquals(expected.keySet().stream().mapToLong(Long::longValue).toArray(), ids(actual));
+        assertArrayEquals(expected.values().stream().mapToInt(Integer::intValue).toArray(), counts(actual));
+    }
+    
+    private static long[] ids(RecommendationService.Counts counts) {
+        return (long[]) ReflectionTestUtils.getField(counts, "ids");
+    }
+    
+    private static int[] counts(RecommendationService.Counts counts) {
+        return (int[]) ReflectionTestUtils.getField(counts, "counts");
+    }
+}
\ No newline at end of file
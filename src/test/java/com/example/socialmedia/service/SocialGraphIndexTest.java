@@ -0,0 +1,196 @@
+package com.example.socialmedia.service;
+
+import com.example.socialmedia.event.SubscriptionChangedEvent;
+import com.example.socialmedia.event.UserDeletedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Applies random follows, unfollows and deletions to an embedded database and to the index
+ * the way the after-commit listeners do, and checks that snapshot plus overlay always
+ * answers exactly like {@code user_subscriptions}, before and after compaction.
+ */
+class SocialGraphIndexTest {
+    
+    private static final int USERS = 40;
+    
+    private final Random random = new Random(42);
+    
+    private final List<Long> userIds = new ArrayList<>();
+    
+    private EmbeddedDatabase database;
+    
+    private JdbcTemplate jdbcTemplate;
+    
+    private SocialGraphIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("graph-" + UUID.randomUUID())
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE user_subscriptions (subscriber_id BIGINT NOT NULL, "
+                + "target_id BIGINT NOT NULL, PRIMARY KEY (subscriber_id, target_id))");
+        for (long id = 1; id <= USERS; id++) {
+            createUser(id);
+        }
+        for (int i = 0; i < USERS * 5; i++) {
+            long subscriberId = randomUser();
+            long targetId = randomUser();
+            if (subscriberId != targetId && !follows(subscriberId, targetId)) {
+                jdbcTemplate.update("INSERT INTO user_subscriptions VALUES (?, ?)", subscriberId, targetId);
+            }
+        }
+        
+        index = new SocialGraphIndex();
+        ReflectionTestUtils.setField(index, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(index, "transactionManager", new DataSourceTransactionManager(database));
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "compactThreshold", Integer.MAX_VALUE);
+        index.build();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+    
+    @Test
+    void snapshotMatchesDatabase() {
+        assertTrue(index.isReady());
+        assertMatchesDatabase();
+    }
+    
+    @Test
+    void overlayMatchesDatabaseBeforeAndAfterCompaction() {
+        for (int round = 0; round < 3; round++) {
+            // Users created after the snapshot only exist in the overlay until the next compaction
+            createUser(USERS + round + 1L);
+            for (int i = 0; i < 200; i++) {
+                toggleRandomEdge();
+            }
+            assertMatchesDatabase();
+            
+            index.compact();
+            assertMatchesDatabase();
+        }
+    }
+    
+    @Test
+    void deletedUsersLoseAllEdges() {
+        for (int i = 0; i < 100; i++) {
+            toggleRandomEdge();
+        }
+        for (int i = 0; i < 5; i++) {
+            deleteUser(userIds.get(random.nextInt(userIds.size())));
+        }
+        assertMatchesDatabase();
+        
+        index.compact();
+        assertMatchesDatabase();
+    }
+    
+    @Test
+    void followsDuringCompactionAreKept() throws InterruptedException {
+        Random source = new Random(7);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                toggleRandomEdge(source);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            index.compact();
+        }
+        writer.join();
+        assertMatchesDatabase();
+        
+        index.compact();
+        assertMatchesDatabase();
+    }
+    
+    private void toggleRandomEdge() {
+        toggleRandomEdge(random);
+    }
+    
+    private void toggleRandomEdge(Random source) {
+        long subscriberId = userIds.get(source.nextInt(userIds.size()));
+        long targetId = userIds.get(source.nextInt(userIds.size()));
+        if (subscriberId == targetId) {
+            return;
+        }
+        boolean subscribed = !follows(subscriberId, targetId);
+        if (subscribed) {
+            jdbcTemplate.update("INSERT INTO user_subscriptions VALUES (?, ?)", subscriberId, targetId);
+        } else {
+            jdbcTemplate.update("DELETE FROM user_subscriptions WHERE subscriber_id = ? AND target_id = ?",
+                    subscriberId, targetId);
+        }
+        index.onSubscriptionChanged(new SubscriptionChangedEvent(
+                subscriberId, Collections.singletonList(targetId), subscribed));
+    }
+    
+    private void createUser(long id) {
+        jdbcTemplate.update("INSERT INTO users VALUES (?)", id);
+        userIds.add(id);
+    }
+    
+    private void deleteUser(Long id) {
+        jdbcTemplate.update("DELETE FROM user_subscriptions WHERE subscriber_id = ? OR target_id = ?", id, id);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+        userIds.remove(id);
+        index.onUserDeleted(new UserDeletedEvent(id));
+    }
+    
+    private long randomUser() {
+        return userIds.get(random.nextInt(userIds.size()));
+    }
+    
+    private boolean follows(long subscriberId, long targetId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_subscriptions WHERE subscriber_id = ? AND target_id = ?",
+                Integer.class, subscriberId, targetId);
+        return count != null && count > 0;
+    }
+    
+    private void assertMatchesDatabase() {
+        for (Long userId : userIds) {
+            long[] followees = ids("SELECT target_id FROM user_subscriptions WHERE subscriber_id = ? ORDER BY target_id", userId);
+            long[] followers = ids("SELECT subscriber_id FROM user_subscriptions WHERE target_id = ? ORDER BY subscriber_id", userId);
+            
+            assertArrayEquals(followees, index.getFollowees(userId), "followees of " + userId);
+            assertArrayEquals(followers, index.getFollowers(userId), "followers of " + userId);
+            assertEquals(followees.length, index.getFolloweeCount(userId), "followee count of " + userId);
+            assertEquals(followers.length, index.getFollowerCount(userId), "follower count of " + userId);
+            for (Long targetId : userIds) {
+                assertEquals(Arrays.binarySearch(followees, targetId) >= 0, index.isFollowing(userId, targetId),
+                        userId + " follows " + targetId);
+            }
+        }
+    }
+    
+    private long[] ids(String sql, Long userId) {
+        return jdbcTemplate.queryForList(sql, Long.class, userId).stream().mapToLong(Long::longValue).toArray();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.example.socialmedia.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks {@link TrendingService.ScoreMap} and {@link TrendingService.TopK} against
+ * {@link HashMap} and sorting. The wrap-around cases pick keys whose home slots sit at the
+ * end of the smallest table, so their probe runs continue at slot 0 and every remove has
+ * to shift entries back across the wrap.
+ */
+class TrendingServiceScoreMapTest {
+    
+    private static final int TABLE_SIZE = 16;
+    
+    private final Random random = new Random(42);
+    
+    @Test
+    void removesThatWrapAroundTheTableKeepEveryKeyReachable() {
+        List<Long> keys = new ArrayList<>();
+        keys.addAll(keysWithHome(TABLE_SIZE - 2, 2));
+        keys.addAll(keysWithHome(TABLE_SIZE - 1, 2));
+        keys.addAll(keysWithHome(0, 2));
+        keys.addAll(keysWithHome(1, 1));
+        
+        for (int attempt = 0; attempt < 200; attempt++) {
+            TrendingService.ScoreMap map = new TrendingService.ScoreMap(0);
+            Map<Long, Double> model = new HashMap<>();
+            Collections.shuffle(keys, random);
+            for (Long key : keys) {
+                map.add(key, key);
+                model.put(key, (double) key);
+            }
+            assertEquals(TABLE_SIZE, ((long[]) ReflectionTestUtils.getField(map, "keys")).length);
+            
+            Collections.shuffle(keys, random);
+            for (Long key : keys) {
+                map.remove(key);
+                model.remove(key);
+                assertMatches(model, map);
+            }
+        }
+    }
+    
+    @Test
+    void randomOperationsMatchHashMap() {
+        TrendingService.ScoreMap map = new TrendingService.ScoreMap(0);
+        Map<Long, Double> model = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long key = 1 + random.nextInt(200);
+            int operation = random.nextInt(10);
+            if (operation < 6) {
+                double delta = random.nextInt(100);
+                map.add(key, delta);
+                model.merge(key, delta, Double::sum);
+            } else if (operation < 9) {
+                map.remove(key);
+                model.remove(key);
+            } else if (random.nextInt(100) == 0) {
+                double threshold = random.nextInt(500);
+                map.retainAbove(threshold);
+                model.values().removeIf(score -> score < threshold);
+            }
+            if (i % 100 == 0) {
+                assertMatches(model, map);
+            }
+        }
+        assertMatches(model, map);
+    }
+    
+    @Test
+    void removingAbsentKeysChangesNothing() {
+        TrendingService.ScoreMap map = new TrendingService.ScoreMap(0);
+        Map<Long, Double> model = new HashMap<>();
+        for (Long key : keysWithHome(TABLE_SIZE - 1, 3)) {
+            map.add(key, 1);
+            model.put(key, 1.0);
+        }
+        for (Long key : keysWithHome(TABLE_SIZE - 1, 6).subList(3, 6)) {
+            map.remove(key);
+        }
+        map.remove(1L + Long.MAX_VALUE / 2);
+        assertMatches(model, map);
+    }
+    
+    @Test
+    void topKReturnsHighestScoresInDescendingOrder() {
+        for (int capacity : new int[]{1, 5, 50, 500}) {
+            TrendingService.TopK top = new TrendingService.TopK(capacity);
+            List<Long> ids = new ArrayList<>();
+            Map<Long, Double> scores = new HashMap<>();
+            for (long id = 1; id <= 200; id++) {
+                // Distinct scores, so the expected order is unambiguous
+                double score = random.nextInt(1_000_000) + id / 1000.0;
+                ids.add(id);
+                scores.put(id, score);
+                top.offer(id, score);
+            }
+            
+            ids.sort(Comparator.comparing(scores::get, Comparator.reverseOrder()));
+            long[] expected = ids.stream().limit(capacity).mapToLong(Long::longValue).toArray();
+            assertArrayEquals(expected, top.drainDescending(), "top " + capacity);
+        }
+    }
+    
+    private static void assertMatches(Map<Long, Double> model, TrendingService.ScoreMap map) {
+        Map<Long, Double> contents = new HashMap<>();
+        map.forEach(contents::put);
+        assertEquals(model, contents);
+        assertEquals(model.size(), map.size());
+        
+        // A probe that stops at a stale hole would insert a duplicate here and grow the map
+        for (Long key : model.keySet()) {
+            map.add(key, 0);
+        }
+        assertEquals(model.size(), map.size());
+    }
+    
+    private static List<Long> keysWithHome(int slot, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; keys.size() < count; key++) {
+            int hash = ReflectionTestUtils.invokeMethod(TrendingService.ScoreMap.class, "hash", key);
+            if ((hash & (TABLE_SIZE - 1)) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
\ No newline at end of file